@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.awt.Rectangle;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loading a dataset: parsing the JSON, and building the multi and spear tile masks from scratch
+ * or as an update where one area changed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DatasetBenchmark
+{
+	@Param({"1", "2", "5", "10"})
+	public int scale;
+
+	private String json;
+	private List<MultiArea> areas;
+	private List<Rectangle> rectangles;
+	private Dataset previous;
+	private List<MultiArea> changedAreas;
+
+	@Setup
+	public void setUp()
+	{
+		areas = SyntheticData.tiled(scale);
+		json = SyntheticData.toJson(areas);
+		rectangles = Dataset.of(areas).getRectangles();
+		previous = Dataset.of(areas);
+		previous.getReach(SyntheticData.SPEAR_RANGE);
+		changedAreas = SyntheticData.withFirstAreaMoved(areas);
+	}
+
+	@Benchmark
+	public List<MultiArea> parse()
+	{
+		return Dataset.parseAreas(json);
+	}
+
+	@Benchmark
+	public List<MultiArea> normalize()
+	{
+		return RectangleNormalizer.normalize(areas);
+	}
+
+	@Benchmark
+	public TileMask multiArea()
+	{
+		return TileMask.of(rectangles);
+	}
+
+	@Benchmark
+	public TileMask multiAndSpearArea()
+	{
+		return Dataset.of(areas).getReach(SyntheticData.SPEAR_RANGE);
+	}
+
+	@Benchmark
+	public TileMask updateOneArea()
+	{
+		return previous.update(changedAreas).getReach(SyntheticData.SPEAR_RANGE);
+	}
+}
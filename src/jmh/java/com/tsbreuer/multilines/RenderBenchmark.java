@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One frame of the overlay: projecting and drawing the multi and spear lines of a scene onto
+ * an image, with a client stub in place of the game. With {@code moving} the camera turns
+ * every frame, so the projection can't be reused. With {@code filled} the multi and spear
+ * tiles are filled too.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class RenderBenchmark
+{
+	private static final Color FILL_MULTI = new Color(255, 0, 0, 40);
+	private static final Color FILL_SPEAR = new Color(255, 200, 0, 40);
+
+	@Param({"1", "2", "5", "10"})
+	public int scale;
+
+	@Param({"false", "true"})
+	public boolean moving;
+
+	@Param({"false", "true"})
+	public boolean filled;
+
+	private final StubClient stub = new StubClient();
+	private final Instrumentation instrumentation = new Instrumentation();
+
+	private GeometrySnapshot snapshot;
+	private LineProjector projector;
+	private BufferedImage image;
+	private Graphics2D graphics;
+	private LineRenderer multiRenderer;
+	private LineRenderer spearRenderer;
+	private FillRenderer multiFillRenderer;
+	private FillRenderer spearFillRenderer;
+
+	@Setup
+	public void setUp()
+	{
+		final Dataset dataset = Dataset.of(SyntheticData.tiled(scale));
+		final RegionLineCache multiCache = new RegionLineCache(64, instrumentation);
+		final RegionLineCache spearCache = new RegionLineCache(64, instrumentation);
+		final int baseX = SyntheticData.SCENE_BASE_X;
+		final int baseY = SyntheticData.SCENE_BASE_Y;
+		snapshot = new GeometrySnapshot(dataset.getVersion(), SyntheticData.SPEAR_RANGE, baseX, baseY, GeometrySnapshot.NOT_INSTANCED,
+			SceneLines.fromDataset(dataset, 0, multiCache, baseX, baseY, stub.tileHeights, stub.tileSettings),
+			SceneLines.fromDataset(dataset, SyntheticData.SPEAR_RANGE, spearCache, baseX, baseY, stub.tileHeights, stub.tileSettings),
+			SceneFill.fromMask(dataset.getMultiArea(), null, baseX, baseY, stub.tileHeights, stub.tileSettings),
+			SceneFill.fromMask(dataset.getReach(SyntheticData.SPEAR_RANGE), dataset.getMultiArea(), baseX, baseY, stub.tileHeights, stub.tileSettings),
+			DistanceField.EMPTY);
+
+		projector = new ClientLineProjector(stub.client());
+		image = new BufferedImage(StubClient.CANVAS_WIDTH, StubClient.CANVAS_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+		graphics = image.createGraphics();
+		multiRenderer = new LineRenderer(instrumentation, Instrumentation.Layer.SCENE);
+		spearRenderer = new LineRenderer(instrumentation, Instrumentation.Layer.SCENE);
+		multiFillRenderer = new FillRenderer(instrumentation, Instrumentation.Layer.SCENE);
+		spearFillRenderer = new FillRenderer(instrumentation, Instrumentation.Layer.SCENE);
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		graphics.dispose();
+	}
+
+	@Benchmark
+	public BufferedImage frame()
+	{
+		if (moving)
+		{
+			stub.cameraYaw = stub.cameraYaw + 1 & 2047;
+		}
+
+		if (filled)
+		{
+			spearFillRenderer.render(graphics, snapshot.getSpearFill(), projector, FILL_SPEAR);
+			multiFillRenderer.render(graphics, snapshot.getMultiFill(), projector, FILL_MULTI);
+		}
+		multiRenderer.render(graphics, snapshot.getMultiLines(), projector, Color.RED);
+		spearRenderer.render(graphics, snapshot.getSpearLines(), projector, Color.ORANGE);
+		return image;
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building the geometry of the busiest scene: outlining and clipping the lines, with and without
+ * the region cache, and the distance field. These should not depend on the size of the dataset.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SceneBenchmark
+{
+	@Param({"1", "2", "5", "10"})
+	public int scale;
+
+	private final Instrumentation instrumentation = new Instrumentation();
+	private final StubClient stub = new StubClient();
+	private Dataset dataset;
+	private RegionLineCache cache;
+
+	@Setup
+	public void setUp()
+	{
+		dataset = Dataset.of(SyntheticData.tiled(scale));
+		cache = new RegionLineCache(64, instrumentation);
+		SceneLines.fromDataset(dataset, SyntheticData.SPEAR_RANGE, cache, SyntheticData.SCENE_BASE_X, SyntheticData.SCENE_BASE_Y, stub.tileHeights, stub.tileSettings);
+	}
+
+	@Benchmark
+	public SceneLines uncachedScene()
+	{
+		return SceneLines.fromDataset(dataset, SyntheticData.SPEAR_RANGE, new RegionLineCache(64, instrumentation),
+			SyntheticData.SCENE_BASE_X, SyntheticData.SCENE_BASE_Y, stub.tileHeights, stub.tileSettings);
+	}
+
+	@Benchmark
+	public SceneLines cachedScene()
+	{
+		return SceneLines.fromDataset(dataset, SyntheticData.SPEAR_RANGE, cache,
+			SyntheticData.SCENE_BASE_X, SyntheticData.SCENE_BASE_Y, stub.tileHeights, stub.tileSettings);
+	}
+
+	@Benchmark
+	public DistanceField distanceField()
+	{
+		return DistanceField.of(dataset.getMultiArea(), SyntheticData.SCENE_BASE_X, SyntheticData.SCENE_BASE_Y, 16);
+	}
+}
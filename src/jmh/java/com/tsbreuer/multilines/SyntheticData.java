@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Datasets for the benchmarks, made by copying the bundled dataset {@code scale} times.
+ */
+final class SyntheticData
+{
+	static final String BUNDLED_DATASET = "MultiLinesData.json";
+	static final int SPEAR_RANGE = 4;
+
+	// The scene with the most lines in the bundled dataset
+	static final int SCENE_BASE_X = 1544;
+	static final int SCENE_BASE_Y = 3744;
+
+	// The bundled areas fit in a 4096 x 4096 block, so copies placed on a grid of those never overlap
+	private static final int TILE_SIZE = 4096;
+	private static final int TILES_PER_ROW = 4;
+
+	private SyntheticData()
+	{
+	}
+
+	static List<MultiArea> bundledAreas()
+	{
+		try (InputStream in = SyntheticData.class.getResourceAsStream(BUNDLED_DATASET))
+		{
+			if (in == null)
+			{
+				throw new IllegalStateException("missing " + BUNDLED_DATASET);
+			}
+			return Dataset.parseAreas(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @return copies of the bundled areas spread over the world, so that the dataset grows while
+	 * the scenes around the original areas stay the same
+	 */
+	static List<MultiArea> tiled(int scale)
+	{
+		final List<MultiArea> bundled = bundledAreas();
+		final List<MultiArea> areas = new ArrayList<>(bundled.size() * scale);
+		for (int copy = 0; copy < scale; copy++)
+		{
+			for (MultiArea area : bundled)
+			{
+				areas.add(new MultiArea(area.getName() + " " + copy, translate(area.getRectangles(), copy)));
+			}
+		}
+		return areas;
+	}
+
+	/**
+	 * @return the areas with the rectangles of the first one moved a tile east, as a small fix
+	 * to the mapping would
+	 */
+	static List<MultiArea> withFirstAreaMoved(List<MultiArea> areas)
+	{
+		final List<MultiArea> moved = new ArrayList<>(areas);
+		final MultiArea first = areas.get(0);
+		final List<Rectangle> rectangles = new ArrayList<>();
+		for (Rectangle rectangle : first.getRectangles())
+		{
+			rectangles.add(new Rectangle(rectangle.x + 1, rectangle.y, rectangle.width, rectangle.height));
+		}
+		moved.set(0, new MultiArea(first.getName(), rectangles));
+		return moved;
+	}
+
+	private static List<Rectangle> translate(List<Rectangle> rectangles, int copy)
+	{
+		final int dx = copy % TILES_PER_ROW * TILE_SIZE;
+		final int dy = copy / TILES_PER_ROW * TILE_SIZE;
+		final List<Rectangle> translated = new ArrayList<>(rectangles.size());
+		for (Rectangle rectangle : rectangles)
+		{
+			translated.add(new Rectangle(rectangle.x + dx, rectangle.y + dy, rectangle.width, rectangle.height));
+		}
+		return translated;
+	}
+
+	/**
+	 * @return the areas in the layout of a dataset file, all enabled
+	 */
+	static String toJson(List<MultiArea> areas)
+	{
+		final StringBuilder json = new StringBuilder(areas.size() * 1024);
+		json.append("{\"MultiLines\":{\"Areas\":[");
+		for (int i = 0; i < areas.size(); i++)
+		{
+			final MultiArea area = areas.get(i);
+			if (i > 0)
+			{
+				json.append(',');
+			}
+			json.append("{\"Name\":\"").append(area.getName())
+				.append("\",\"Removed\":false,\"Enabled\":true,\"Wilderness\":false,\"Notes\":\"\",\"Tiles\":[");
+			final List<Rectangle> rectangles = area.getRectangles();
+			for (int j = 0; j < rectangles.size(); j++)
+			{
+				final Rectangle rectangle = rectangles.get(j);
+				if (j > 0)
+				{
+					json.append(',');
+				}
+				json.append("{\"x\":").append(rectangle.x)
+					.append(",\"y\":").append(rectangle.y)
+					.append(",\"width\":").append(rectangle.width)
+					.append(",\"height\":").append(rectangle.height)
+					.append('}');
+			}
+			json.append("]}");
+		}
+		return json.append("]}}").toString();
+	}
+}
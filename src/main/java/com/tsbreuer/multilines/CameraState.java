@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+/**
+ * Everything that influences where a scene point ends up on the canvas. Projected geometry
+ * can be reused for as long as the camera state stays equal.
+ */
+final class CameraState
+{
+	int cameraX;
+	int cameraY;
+	int cameraZ;
+	int cameraPitch;
+	int cameraYaw;
+	int scale;
+	int viewportWidth;
+	int viewportHeight;
+	int viewportXOffset;
+	int viewportYOffset;
+	int canvasWidth;
+	int canvasHeight;
+	int plane;
+
+	void copyFrom(CameraState other)
+	{
+		cameraX = other.cameraX;
+		cameraY = other.cameraY;
+		cameraZ = other.cameraZ;
+		cameraPitch = other.cameraPitch;
+		cameraYaw = other.cameraYaw;
+		scale = other.scale;
+		viewportWidth = other.viewportWidth;
+		viewportHeight = other.viewportHeight;
+		viewportXOffset = other.viewportXOffset;
+		viewportYOffset = other.viewportYOffset;
+		canvasWidth = other.canvasWidth;
+		canvasHeight = other.canvasHeight;
+		plane = other.plane;
+	}
+
+	@Override
+	public boolean equals(Object o)
+	{
+		if (this == o)
+		{
+			return true;
+		}
+		if (!(o instanceof CameraState))
+		{
+			return false;
+		}
+
+		final CameraState other = (CameraState) o;
+		return cameraX == other.cameraX
+			&& cameraY == other.cameraY
+			&& cameraZ == other.cameraZ
+			&& cameraPitch == other.cameraPitch
+			&& cameraYaw == other.cameraYaw
+			&& scale == other.scale
+			&& viewportWidth == other.viewportWidth
+			&& viewportHeight == other.viewportHeight
+			&& viewportXOffset == other.viewportXOffset
+			&& viewportYOffset == other.viewportYOffset
+			&& canvasWidth == other.canvasWidth
+			&& canvasHeight == other.canvasHeight
+			&& plane == other.plane;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		int result = cameraX;
+		result = 31 * result + cameraY;
+		result = 31 * result + cameraZ;
+		result = 31 * result + cameraPitch;
+		result = 31 * result + cameraYaw;
+		result = 31 * result + scale;
+		result = 31 * result + viewportWidth;
+		result = 31 * result + viewportHeight;
+		result = 31 * result + viewportXOffset;
+		result = 31 * result + viewportYOffset;
+		result = 31 * result + canvasWidth;
+		result = 31 * result + canvasHeight;
+		result = 31 * result + plane;
+		return result;
+	}
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import javax.inject.Inject;
+import net.runelite.api.Client;
+import net.runelite.api.Constants;
+import net.runelite.api.Perspective;
+
+/**
+ * Allocation free equivalent of {@link Perspective#localToCanvas(Client, net.runelite.api.coords.LocalPoint, int)}
+ * for points on tile corners. The camera is read from the client once per frame, when it is
+ * captured.
+ */
+class ClientLineProjector implements LineProjector
+{
+	static final int TILE_FLAG_BRIDGE = 2;
+	private static final int MIN_LOCAL = Perspective.LOCAL_TILE_SIZE;
+	private static final int MAX_LOCAL = (Constants.SCENE_SIZE - 2) * Perspective.LOCAL_TILE_SIZE;
+	private static final int NEAR_PLANE = 50;
+
+	private final Client client;
+
+	private int plane;
+	private int[][][] tileHeights;
+	private byte[][][] tileSettings;
+	private int cameraX;
+	private int cameraY;
+	private int cameraZ;
+	private int pitchSin;
+	private int pitchCos;
+	private int yawSin;
+	private int yawCos;
+	private int scale;
+	private int centerX;
+	private int centerY;
+	private int canvasWidth;
+	private int canvasHeight;
+
+	@Inject
+	ClientLineProjector(Client client)
+	{
+		this.client = client;
+	}
+
+	@Override
+	public void project(int[] localX, int[] localY, int offset, int count, int[] canvasX, int[] canvasY)
+	{
+		final int plane = this.plane;
+		final int[][][] tileHeights = this.tileHeights;
+		final byte[][][] tileSettings = this.tileSettings;
+		final int cameraX = this.cameraX;
+		final int cameraY = this.cameraY;
+		final int cameraZ = this.cameraZ;
+		final int pitchSin = this.pitchSin;
+		final int pitchCos = this.pitchCos;
+		final int yawSin = this.yawSin;
+		final int yawCos = this.yawCos;
+		final int scale = this.scale;
+		final int centerX = this.centerX;
+		final int centerY = this.centerY;
+
+		for (int i = offset; i < offset + count; i++)
+		{
+			final int lx = localX[i];
+			final int ly = localY[i];
+			if (lx < MIN_LOCAL || ly < MIN_LOCAL || lx > MAX_LOCAL || ly > MAX_LOCAL)
+			{
+				canvasX[i] = UNPROJECTED;
+				continue;
+			}
+
+			// Lines are always on tile corners, so the height needs no interpolation
+			final int sceneX = lx >> Perspective.LOCAL_COORD_BITS;
+			final int sceneY = ly >> Perspective.LOCAL_COORD_BITS;
+			int z = plane;
+			if (z < 3 && (tileSettings[1][sceneX][sceneY] & TILE_FLAG_BRIDGE) == TILE_FLAG_BRIDGE)
+			{
+				z++;
+			}
+
+			final int x = lx - cameraX;
+			final int y = ly - cameraY;
+			final int height = tileHeights[z][sceneX][sceneY] - cameraZ;
+
+			final int x1 = x * yawCos + y * yawSin >> 16;
+			final int y1 = y * yawCos - x * yawSin >> 16;
+			final int y2 = height * pitchCos - y1 * pitchSin >> 16;
+			final int z1 = y1 * pitchCos + height * pitchSin >> 16;
+			if (z1 < NEAR_PLANE)
+			{
+				canvasX[i] = UNPROJECTED;
+				continue;
+			}
+
+			canvasX[i] = centerX + x1 * scale / z1;
+			canvasY[i] = centerY + y2 * scale / z1;
+		}
+	}
+
+	@Override
+	public boolean mayBeVisible(int minLocalX, int minLocalY, int maxLocalX, int maxLocalY, int minHeight, int maxHeight)
+	{
+		int minCanvasX = Integer.MAX_VALUE;
+		int minCanvasY = Integer.MAX_VALUE;
+		int maxCanvasX = Integer.MIN_VALUE;
+		int maxCanvasY = Integer.MIN_VALUE;
+		for (int corner = 0; corner < 8; corner++)
+		{
+			final int x = ((corner & 1) == 0 ? minLocalX : maxLocalX) - cameraX;
+			final int y = ((corner & 2) == 0 ? minLocalY : maxLocalY) - cameraY;
+			final int height = ((corner & 4) == 0 ? minHeight : maxHeight) - cameraZ;
+
+			final int x1 = x * yawCos + y * yawSin >> 16;
+			final int y1 = y * yawCos - x * yawSin >> 16;
+			final int y2 = height * pitchCos - y1 * pitchSin >> 16;
+			final int z1 = y1 * pitchCos + height * pitchSin >> 16;
+			if (z1 < NEAR_PLANE)
+			{
+				// Part of the box is behind the camera, which the corners can't tell much about
+				return true;
+			}
+
+			final int canvasX = centerX + x1 * scale / z1;
+			final int canvasY = centerY + y2 * scale / z1;
+			minCanvasX = Math.min(minCanvasX, canvasX);
+			minCanvasY = Math.min(minCanvasY, canvasY);
+			maxCanvasX = Math.max(maxCanvasX, canvasX);
+			maxCanvasY = Math.max(maxCanvasY, canvasY);
+		}
+
+		// A perspective projection of the box lies within the projections of its corners
+		return maxCanvasX > 0 && maxCanvasY > 0 && minCanvasX < canvasWidth && minCanvasY < canvasHeight;
+	}
+
+	@Override
+	public void captureCamera(CameraState state)
+	{
+		plane = client.getPlane();
+		tileHeights = client.getTileHeights();
+		tileSettings = client.getTileSettings();
+		cameraX = client.getCameraX();
+		cameraY = client.getCameraY();
+		cameraZ = client.getCameraZ();
+		pitchSin = Perspective.SINE[client.getCameraPitch()];
+		pitchCos = Perspective.COSINE[client.getCameraPitch()];
+		yawSin = Perspective.SINE[client.getCameraYaw()];
+		yawCos = Perspective.COSINE[client.getCameraYaw()];
+		scale = client.getScale();
+		centerX = client.getViewportWidth() / 2 + client.getViewportXOffset();
+		centerY = client.getViewportHeight() / 2 + client.getViewportYOffset();
+		canvasWidth = client.getCanvasWidth();
+		canvasHeight = client.getCanvasHeight();
+
+		state.cameraX = cameraX;
+		state.cameraY = cameraY;
+		state.cameraZ = cameraZ;
+		state.cameraPitch = client.getCameraPitch();
+		state.cameraYaw = client.getCameraYaw();
+		state.scale = scale;
+		state.viewportWidth = client.getViewportWidth();
+		state.viewportHeight = client.getViewportHeight();
+		state.viewportXOffset = client.getViewportXOffset();
+		state.viewportYOffset = client.getViewportYOffset();
+		state.canvasWidth = canvasWidth;
+		state.canvasHeight = canvasHeight;
+		state.plane = plane;
+	}
+
+	@Override
+	public int getCanvasWidth()
+	{
+		return canvasWidth;
+	}
+
+	@Override
+	public int getCanvasHeight()
+	{
+		return canvasHeight;
+	}
+}
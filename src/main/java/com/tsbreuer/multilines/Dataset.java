@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A processed dataset: the multi areas along with the tiles they cover. The tiles within a
+ * given reach of them are grown from the closest smaller reach already known the first time
+ * they are asked for, and kept for as long as the dataset is. Every instance gets a new
+ * version, which tells apart geometry built from different loads.
+ * <p>
+ * A dataset built as an {@link #update} of another one only redoes the map regions under the
+ * areas which changed, and keeps track of when each region last changed so geometry cached
+ * for the other regions can still be used.
+ */
+final class Dataset
+{
+	private static final AtomicLong VERSIONS = new AtomicLong();
+
+	static final Dataset EMPTY = new Dataset(Collections.emptyList(), TileMask.EMPTY);
+
+	private final long version = VERSIONS.getAndIncrement();
+	private final List<MultiArea> areas;
+	private final List<Rectangle> rectangles;
+	private final TileMask multiArea;
+	// Written while holding its own lock, so each reach is grown once, and read without it
+	private final NavigableMap<Integer, TileMask> reaches = new ConcurrentSkipListMap<>();
+	// The version regions which never changed since the first full build date from, and the
+	// version of the last change of every other region by region id
+	private final long baseVersion;
+	private final Map<Integer, Long> regionVersions;
+
+	Dataset(List<MultiArea> areas, TileMask multiArea)
+	{
+		this(areas, multiArea, null, new BitSet());
+	}
+
+	private Dataset(List<MultiArea> areas, TileMask multiArea, Dataset previous, BitSet changedRegions)
+	{
+		this.areas = Collections.unmodifiableList(areas);
+		this.rectangles = Collections.unmodifiableList(flatten(areas));
+		this.multiArea = multiArea;
+		reaches.put(0, multiArea);
+
+		baseVersion = previous == null ? version : previous.baseVersion;
+		regionVersions = previous == null ? new HashMap<>() : new HashMap<>(previous.regionVersions);
+		for (int region = changedRegions.nextSetBit(0); region >= 0; region = changedRegions.nextSetBit(region + 1))
+		{
+			regionVersions.put(region, version);
+		}
+	}
+
+	/**
+	 * Builds the multi area from the rectangles of every area normalized together, so those of
+	 * different areas which overlap or meet are merged before their tiles are set.
+	 */
+	static Dataset of(List<MultiArea> areas)
+	{
+		return new Dataset(areas, TileMask.of(RectangleNormalizer.normalizeRectangles(flatten(areas))));
+	}
+
+	private static List<Rectangle> flatten(List<MultiArea> areas)
+	{
+		final List<Rectangle> rectangles = new ArrayList<>();
+		for (MultiArea area : areas)
+		{
+			rectangles.addAll(area.getRectangles());
+		}
+		return rectangles;
+	}
+
+	/**
+	 * Builds the dataset for a new version of the areas by redoing only the regions under the
+	 * areas which were added, removed or changed since this one. Reaches already grown for
+	 * this dataset are carried over the same way.
+	 *
+	 * @return the new dataset, or this one if no area changed
+	 */
+	Dataset update(List<MultiArea> newAreas)
+	{
+		final Map<String, MultiArea> previous = new HashMap<>();
+		for (MultiArea area : areas)
+		{
+			previous.put(area.getName(), area);
+		}
+
+		final BitSet changed = new BitSet();
+		for (MultiArea area : newAreas)
+		{
+			final MultiArea old = previous.remove(area.getName());
+			if (old == null || old.getHash() != area.getHash())
+			{
+				addRegions(changed, area);
+				if (old != null)
+				{
+					addRegions(changed, old);
+				}
+			}
+		}
+		// Whatever is left was removed
+		for (MultiArea area : previous.values())
+		{
+			addRegions(changed, area);
+		}
+
+		if (changed.isEmpty())
+		{
+			return this;
+		}
+
+		final List<Rectangle> touching = new ArrayList<>();
+		final BitSet covered = new BitSet();
+		for (MultiArea area : newAreas)
+		{
+			for (Rectangle rectangle : area.getRectangles())
+			{
+				covered.clear();
+				TileMask.addRegions(covered, rectangle);
+				if (covered.intersects(changed))
+				{
+					touching.add(rectangle);
+				}
+			}
+		}
+
+		final Dataset updated = new Dataset(newAreas, multiArea.replace(changed, TileMask.of(RectangleNormalizer.normalizeRectangles(touching))), this, changed);
+
+		// A reach spills as many regions past the changed ones as its range takes, so those are
+		// grown again from the regions as far around them
+		synchronized (reaches)
+		{
+			for (Map.Entry<Integer, TileMask> reach : reaches.tailMap(0, false).entrySet())
+			{
+				final int radius = TileMask.regionsWithin(reach.getKey());
+				final BitSet reachChanged = TileMask.growRegions(changed, radius);
+				final TileMask around = updated.multiArea.retain(TileMask.growRegions(reachChanged, radius));
+				updated.putReach(reach.getKey(), reach.getValue().replace(reachChanged, around.dilate(reach.getKey())));
+			}
+		}
+		return updated;
+	}
+
+	private static void addRegions(BitSet regions, MultiArea area)
+	{
+		for (Rectangle rectangle : area.getRectangles())
+		{
+			TileMask.addRegions(regions, rectangle);
+		}
+	}
+
+	/**
+	 * Reads the enabled areas outside the wilderness from a dataset file, either a list of areas
+	 * made of rectangles or a GeoJSON FeatureCollection, see {@link GeoJsonReader}. Areas which
+	 * share a name are told apart by a suffix, see {@link MultiArea#withUniqueNames}.
+	 *
+	 * @throws JsonParseException if the file is not JSON
+	 * @throws RuntimeException usually an IllegalStateException, if the file does not have the
+	 * layout of a dataset
+	 */
+	static List<MultiArea> parseAreas(String json)
+	{
+		final JsonObject root = JsonParser.parseString(json).getAsJsonObject();
+		if (GeoJsonReader.isFeatureCollection(root))
+		{
+			return GeoJsonReader.readAreas(root);
+		}
+
+		final List<MultiArea> areas = new ArrayList<>();
+		final JsonArray multiAreas = root.get("MultiLines").getAsJsonObject().get("Areas").getAsJsonArray();
+		for (JsonElement element : multiAreas)
+		{
+			final JsonObject area = element.getAsJsonObject();
+			if (!area.get("Enabled").getAsBoolean() || area.get("Removed").getAsBoolean() || area.get("Wilderness").getAsBoolean())
+			{
+				continue;
+			}
+
+			final List<Rectangle> rectangles = new ArrayList<>();
+			for (JsonElement tile : area.get("Tiles").getAsJsonArray())
+			{
+				final JsonObject rectangle = tile.getAsJsonObject();
+				rectangles.add(new Rectangle(
+					rectangle.get("x").getAsInt(),
+					rectangle.get("y").getAsInt(),
+					rectangle.get("width").getAsInt(),
+					rectangle.get("height").getAsInt()));
+			}
+
+			final JsonElement name = area.get("Name");
+			areas.add(new MultiArea(name == null || name.isJsonNull() ? "" : name.getAsString(), rectangles));
+		}
+		return MultiArea.withUniqueNames(areas);
+	}
+
+	long getVersion()
+	{
+		return version;
+	}
+
+	/**
+	 * @return the latest version in which anything within {@code radius} regions of the given
+	 * region changed, which is the same for two datasets only if the tiles around the region
+	 * are the same in both
+	 */
+	long getRegionVersion(int regionX, int regionY, int radius)
+	{
+		long latest = baseVersion;
+		if (regionVersions.isEmpty())
+		{
+			return latest;
+		}
+
+		for (int x = regionX - radius; x <= regionX + radius; x++)
+		{
+			for (int y = regionY - radius; y <= regionY + radius; y++)
+			{
+				if ((x | y) >>> 8 != 0)
+				{
+					// Outside the world
+					continue;
+				}
+
+				final Long changed = regionVersions.get(TileMask.regionId(x, y));
+				if (changed != null && changed > latest)
+				{
+					latest = changed;
+				}
+			}
+		}
+		return latest;
+	}
+
+	List<MultiArea> getAreas()
+	{
+		return areas;
+	}
+
+	List<Rectangle> getRectangles()
+	{
+		return rectangles;
+	}
+
+	TileMask getMultiArea()
+	{
+		return multiArea;
+	}
+
+	/**
+	 * @return the tiles in a multi-combat area or at most {@code range} steps along the axes
+	 * from one. The first call for a range may take a while, callers for the same range wait
+	 * for it rather than repeat it.
+	 */
+	TileMask getReach(int range)
+	{
+		final TileMask grown = reaches.get(range);
+		if (grown != null)
+		{
+			return grown;
+		}
+
+		synchronized (reaches)
+		{
+			final Map.Entry<Integer, TileMask> closest = reaches.floorEntry(range);
+			if (closest.getKey() == range)
+			{
+				return closest.getValue();
+			}
+
+			final TileMask reach = closest.getValue().dilate(range - closest.getKey());
+			reaches.put(range, reach);
+			return reach;
+		}
+	}
+
+	/**
+	 * @return the tiles within reach like {@link #getReach}, or null if they haven't been grown
+	 * yet. Never waits, so the client thread can use it and have the reach grown elsewhere.
+	 */
+	TileMask peekReach(int range)
+	{
+		return reaches.get(range);
+	}
+
+	void putReach(int range, TileMask reach)
+	{
+		synchronized (reaches)
+		{
+			reaches.put(range, reach);
+		}
+	}
+}
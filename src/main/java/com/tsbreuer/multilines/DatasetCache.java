@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps the last downloaded copy of each dataset on disk, so lines can be drawn right away
+ * and the remote copy only has to be downloaded again once it has actually changed.
+ */
+@Slf4j
+class DatasetCache
+{
+	private static final String ETAG = "etag";
+	private static final String LAST_MODIFIED = "lastModified";
+	private static final String CHECKED = "checked";
+	private static final String CHECKSUM = "checksum";
+
+	private final HttpClient httpClient;
+	private final Path directory;
+
+	DatasetCache(HttpClient httpClient, File directory)
+	{
+		this.httpClient = httpClient;
+		this.directory = directory.toPath();
+	}
+
+	/**
+	 * @return the stored copy of the dataset, or null if it was never downloaded
+	 */
+	String getCached(String name)
+	{
+		final Path file = directory.resolve(name);
+		if (!Files.exists(file))
+		{
+			return null;
+		}
+
+		try
+		{
+			return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		}
+		catch (IOException e)
+		{
+			log.debug("Unable to read cached dataset {}", name, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Revalidates the stored copy of the dataset against {@code uri}, unless it was checked
+	 * less than {@code maxAge} ago.
+	 *
+	 * @return the new dataset if it changed, or null if the stored copy is still current
+	 */
+	String refresh(String name, URI uri, Duration maxAge) throws IOException, InterruptedException
+	{
+		final Properties metadata = readMetadata(name);
+		final boolean cached = Files.exists(directory.resolve(name));
+		if (cached && System.currentTimeMillis() - getChecked(metadata) < maxAge.toMillis())
+		{
+			return null;
+		}
+
+		final HttpRequest.Builder request = HttpRequest.newBuilder()
+				.uri(uri)
+				.timeout(Duration.ofSeconds(15))
+				.GET();
+		if (cached)
+		{
+			final String etag = metadata.getProperty(ETAG);
+			final String lastModified = metadata.getProperty(LAST_MODIFIED);
+			if (etag != null)
+			{
+				request.header("If-None-Match", etag);
+			}
+			if (lastModified != null)
+			{
+				request.header("If-Modified-Since", lastModified);
+			}
+		}
+
+		final HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+		metadata.setProperty(CHECKED, Long.toString(System.currentTimeMillis()));
+
+		if (response.statusCode() == 304 && cached)
+		{
+			writeMetadata(name, metadata);
+			return null;
+		}
+		if (response.statusCode() != 200)
+		{
+			throw new IOException("Unexpected response " + response.statusCode() + " for " + uri);
+		}
+
+		metadata.setProperty(CHECKSUM, Long.toString(checksum(response.body())));
+		metadata.remove(ETAG);
+		metadata.remove(LAST_MODIFIED);
+		response.headers().firstValue("ETag").ifPresent(etag -> metadata.setProperty(ETAG, etag));
+		response.headers().firstValue("Last-Modified").ifPresent(lastModified -> metadata.setProperty(LAST_MODIFIED, lastModified));
+
+		Files.createDirectories(directory);
+		final Path temp = Files.createTempFile(directory, name, ".tmp");
+		Files.write(temp, response.body().getBytes(StandardCharsets.UTF_8));
+		Files.move(temp, directory.resolve(name), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		writeMetadata(name, metadata);
+		return response.body();
+	}
+
+	/**
+	 * @return the checksum of the stored copy of the dataset, or -1 if it is unknown
+	 */
+	long getChecksum(String name)
+	{
+		final Properties metadata = readMetadata(name);
+		try
+		{
+			return Long.parseLong(metadata.getProperty(CHECKSUM));
+		}
+		catch (NumberFormatException e)
+		{
+			// Copies stored before checksums were recorded get theirs on first use
+			final String cached = getCached(name);
+			if (cached == null)
+			{
+				return -1;
+			}
+
+			final long checksum = checksum(cached);
+			metadata.setProperty(CHECKSUM, Long.toString(checksum));
+			try
+			{
+				writeMetadata(name, metadata);
+			}
+			catch (IOException ex)
+			{
+				log.debug("Unable to write cache metadata for {}", name, ex);
+			}
+			return checksum;
+		}
+	}
+
+	static long checksum(String body)
+	{
+		final CRC32 crc = new CRC32();
+		crc.update(body.getBytes(StandardCharsets.UTF_8));
+		return crc.getValue();
+	}
+
+	private static long getChecked(Properties metadata)
+	{
+		try
+		{
+			return Long.parseLong(metadata.getProperty(CHECKED, "0"));
+		}
+		catch (NumberFormatException e)
+		{
+			return 0;
+		}
+	}
+
+	private Properties readMetadata(String name)
+	{
+		final Properties metadata = new Properties();
+		final Path file = directory.resolve(name + ".properties");
+		if (Files.exists(file))
+		{
+			try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+			{
+				metadata.load(reader);
+			}
+			catch (IOException | IllegalArgumentException e)
+			{
+				log.debug("Unable to read cache metadata for {}", name, e);
+			}
+		}
+		return metadata;
+	}
+
+	private void writeMetadata(String name, Properties metadata) throws IOException
+	{
+		Files.createDirectories(directory);
+		try (Writer writer = Files.newBufferedWriter(directory.resolve(name + ".properties"), StandardCharsets.UTF_8))
+		{
+			metadata.store(writer, null);
+		}
+	}
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.awt.Rectangle;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary form of a processed {@link Dataset}, so a cold start can read the geometry straight
+ * from disk instead of parsing the json and building the tile masks again.
+ * <p>
+ * Layout, all big endian:
+ * <pre>
+ * int     magic
+ * int     version
+ * long    checksum of the json the dataset was built from
+ * varint  area count
+ *         per area: varint name length and the name in UTF-8, varint rectangle count, then
+ *         per rectangle zigzag varint x and y, as the difference to the previous rectangle of
+ *         any area, followed by varint width and height
+ * varint  reach range
+ *         multi area tile mask, then the mask of the tiles within reach, see {@link TileMask#write}
+ * </pre>
+ */
+final class DatasetCodec
+{
+	private static final int MAGIC = 0x4D4C4742; // MLGB
+	private static final int VERSION = 2;
+	private static final int HEADER_SIZE = Integer.BYTES * 2 + Long.BYTES;
+
+	private DatasetCodec()
+	{
+	}
+
+	/**
+	 * @param reachRange the range of the one reach stored along with the multi area, usually
+	 * the one in use so it doesn't have to be grown again on the next start
+	 */
+	static void write(Path file, long checksum, Dataset dataset, int reachRange) throws IOException
+	{
+		Files.createDirectories(file.getParent());
+		final Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp))))
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(checksum);
+
+			final List<MultiArea> areas = dataset.getAreas();
+			writeVarInt(out, areas.size());
+			int x = 0;
+			int y = 0;
+			for (MultiArea area : areas)
+			{
+				final byte[] name = area.getName().getBytes(StandardCharsets.UTF_8);
+				writeVarInt(out, name.length);
+				out.write(name);
+
+				writeVarInt(out, area.getRectangles().size());
+				for (Rectangle rectangle : area.getRectangles())
+				{
+					writeVarInt(out, zigzag(rectangle.x - x));
+					writeVarInt(out, zigzag(rectangle.y - y));
+					writeVarInt(out, rectangle.width);
+					writeVarInt(out, rectangle.height);
+					x = rectangle.x;
+					y = rectangle.y;
+				}
+			}
+
+			writeVarInt(out, reachRange);
+			dataset.getMultiArea().write(out);
+			dataset.getReach(reachRange).write(out);
+		}
+		catch (IOException e)
+		{
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * @return the dataset stored in {@code file}, or null if there is none, it is in an older
+	 * format or it was built from different json than the one with the given checksum
+	 */
+	static Dataset read(Path file, long checksum) throws IOException
+	{
+		if (!Files.exists(file))
+		{
+			return null;
+		}
+
+		// Read onto the heap rather than mapped, as a mapped file can't be replaced on Windows
+		// until the mapping is collected, which would fail the next write
+		final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+		if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getLong() != checksum)
+		{
+			return null;
+		}
+
+		try
+		{
+			final int areaCount = readVarInt(buffer);
+			final List<MultiArea> areas = new ArrayList<>(areaCount);
+			int x = 0;
+			int y = 0;
+			for (int i = 0; i < areaCount; i++)
+			{
+				final byte[] name = new byte[readVarInt(buffer)];
+				buffer.get(name);
+
+				final int count = readVarInt(buffer);
+				final List<Rectangle> rectangles = new ArrayList<>(count);
+				for (int j = 0; j < count; j++)
+				{
+					x += unzigzag(readVarInt(buffer));
+					y += unzigzag(readVarInt(buffer));
+					rectangles.add(new Rectangle(x, y, readVarInt(buffer), readVarInt(buffer)));
+				}
+				areas.add(new MultiArea(new String(name, StandardCharsets.UTF_8), rectangles));
+			}
+
+			final int reachRange = readVarInt(buffer);
+			final Dataset dataset = new Dataset(areas, TileMask.read(buffer));
+			dataset.putReach(reachRange, TileMask.read(buffer));
+			return dataset;
+		}
+		catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e)
+		{
+			throw new IOException("Corrupt dataset file " + file, e);
+		}
+	}
+
+	private static int zigzag(int value)
+	{
+		return value << 1 ^ value >> 31;
+	}
+
+	private static int unzigzag(int value)
+	{
+		return value >>> 1 ^ -(value & 1);
+	}
+
+	private static void writeVarInt(DataOutputStream out, int value) throws IOException
+	{
+		while ((value & ~0x7F) != 0)
+		{
+			out.writeByte(value & 0x7F | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static int readVarInt(ByteBuffer buffer)
+	{
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7)
+		{
+			final byte b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0)
+			{
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Malformed varint");
+	}
+}
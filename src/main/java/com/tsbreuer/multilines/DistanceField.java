@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import net.runelite.api.Constants;
+
+/**
+ * The number of tiles between each tile of a scene and the nearest multi-combat tile, counted
+ * in steps to the north, east, south or west. This is the same measure the spear area is
+ * grown by, so a tile is within spear range exactly when its distance is at most the spear
+ * range.
+ * <p>
+ * Distances are only known up to a limit. The field is computed over the scene padded by that
+ * limit on every side, which is enough for every distance within the limit to be exact.
+ */
+final class DistanceField
+{
+	static final int UNKNOWN = -1;
+	// Distances are kept in a byte each
+	static final int MAX_LIMIT = Byte.MAX_VALUE;
+
+	static final DistanceField EMPTY = new DistanceField(-1, -1, new byte[0]);
+
+	private final int baseX;
+	private final int baseY;
+	private final byte[] distances;
+
+	private DistanceField(int baseX, int baseY, byte[] distances)
+	{
+		this.baseX = baseX;
+		this.baseY = baseY;
+		this.distances = distances;
+	}
+
+	static DistanceField of(TileMask mask, int baseX, int baseY, int limit)
+	{
+		if (limit < 0 || limit > MAX_LIMIT)
+		{
+			throw new IllegalArgumentException("limit " + limit);
+		}
+
+		// Two passes of the city block distance transform, exact within a rectangle
+		final int size = Constants.SCENE_SIZE + 2 * limit;
+		final int far = limit + 1;
+		final int[] field = new int[size * size];
+		for (int y = 0; y < size; y++)
+		{
+			for (int x = 0; x < size; x++)
+			{
+				final int i = y * size + x;
+				if (mask.contains(baseX - limit + x, baseY - limit + y))
+				{
+					field[i] = 0;
+					continue;
+				}
+
+				int distance = far;
+				if (x > 0)
+				{
+					distance = Math.min(distance, field[i - 1] + 1);
+				}
+				if (y > 0)
+				{
+					distance = Math.min(distance, field[i - size] + 1);
+				}
+				field[i] = distance;
+			}
+		}
+
+		for (int y = size - 1; y >= 0; y--)
+		{
+			for (int x = size - 1; x >= 0; x--)
+			{
+				final int i = y * size + x;
+				if (x < size - 1)
+				{
+					field[i] = Math.min(field[i], field[i + 1] + 1);
+				}
+				if (y < size - 1)
+				{
+					field[i] = Math.min(field[i], field[i + size] + 1);
+				}
+			}
+		}
+
+		final byte[] distances = new byte[Constants.SCENE_SIZE * Constants.SCENE_SIZE];
+		for (int y = 0; y < Constants.SCENE_SIZE; y++)
+		{
+			for (int x = 0; x < Constants.SCENE_SIZE; x++)
+			{
+				final int distance = field[(y + limit) * size + x + limit];
+				distances[y * Constants.SCENE_SIZE + x] = (byte) (distance > limit ? UNKNOWN : distance);
+			}
+		}
+		return new DistanceField(baseX, baseY, distances);
+	}
+
+	/**
+	 * @return the distance from the tile to the nearest multi-combat tile, 0 for a tile in
+	 * multi, or {@link #UNKNOWN} if it is further than the limit or outside the scene
+	 */
+	int getDistance(int x, int y)
+	{
+		final int sceneX = x - baseX;
+		final int sceneY = y - baseY;
+		if (distances.length == 0 || sceneX < 0 || sceneY < 0 || sceneX >= Constants.SCENE_SIZE || sceneY >= Constants.SCENE_SIZE)
+		{
+			return UNKNOWN;
+		}
+		return distances[sceneY * Constants.SCENE_SIZE + sceneX];
+	}
+}
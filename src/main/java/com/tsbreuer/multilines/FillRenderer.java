@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import net.runelite.api.Perspective;
+
+/**
+ * Fills one layer of {@link SceneFill}. Like {@link LineRenderer} it skips chunks out of view,
+ * projects each corner once into buffers it owns, and keeps the result until the spans or the
+ * camera change. The visible quads are collected into a single path, so the translucent colour
+ * doesn't build up where neighbouring spans meet.
+ * <p>
+ * Filling a path with a translucent colour costs a native call for every row of every span,
+ * while replacing the pixels outright doesn't, so the path is filled that way into an image of
+ * its own and only the cells of the canvas the quads touch are blended from it. The image is
+ * kept while the spans, the camera and the colour stay the same.
+ */
+class FillRenderer
+{
+	private static final int CHUNK_LOCAL_SIZE = SceneLines.CHUNK_SIZE << Perspective.LOCAL_COORD_BITS;
+	private static final int CELL_BITS = 5;
+
+	private final Instrumentation instrumentation;
+	private final Instrumentation.Layer layer;
+	private final CameraState camera = new CameraState();
+	private final CameraState cachedCamera = new CameraState();
+	private final Path2D.Float path = new Path2D.Float(Path2D.WIND_NON_ZERO);
+	private SceneFill cachedFill;
+	private Color cachedColor;
+	private int filledSpans;
+
+	private BufferedImage image;
+	private int cellColumns;
+	private int cellRows;
+	// The cells the visible quads cover, and those the image holds a fill in
+	private boolean[] cells = new boolean[0];
+	private boolean[] imageCells = new boolean[0];
+
+	private int[] canvasX = new int[0];
+	private int[] canvasY = new int[0];
+
+	FillRenderer(Instrumentation instrumentation, Instrumentation.Layer layer)
+	{
+		this.instrumentation = instrumentation;
+		this.layer = layer;
+	}
+
+	void render(Graphics2D graphics, SceneFill fill, LineProjector projector, Color color)
+	{
+		projector.captureCamera(camera);
+		final boolean projected = fill != cachedFill || !camera.equals(cachedCamera);
+		if (projected)
+		{
+			project(fill, projector);
+			cachedFill = fill;
+			cachedCamera.copyFrom(camera);
+			instrumentation.count(layer, Instrumentation.Counter.PROJECTION_MISSES, 1);
+		}
+		else
+		{
+			instrumentation.count(layer, Instrumentation.Counter.PROJECTION_HITS, 1);
+		}
+
+		instrumentation.count(layer, Instrumentation.Counter.SPANS_FILLED, filledSpans);
+		if (filledSpans == 0)
+		{
+			return;
+		}
+
+		final long fillStart = instrumentation.start();
+		if (projected || !color.equals(cachedColor))
+		{
+			final Graphics2D imageGraphics = image.createGraphics();
+			try
+			{
+				imageGraphics.setComposite(AlphaComposite.Clear);
+				drawCells(imageGraphics, imageCells, false);
+				imageGraphics.setRenderingHints(graphics.getRenderingHints());
+				imageGraphics.setComposite(AlphaComposite.Src);
+				imageGraphics.setColor(color);
+				imageGraphics.fill(path);
+			}
+			finally
+			{
+				imageGraphics.dispose();
+			}
+			System.arraycopy(cells, 0, imageCells, 0, cells.length);
+			cachedColor = color;
+		}
+		drawCells(graphics, cells, true);
+		instrumentation.record(layer, Instrumentation.Stage.FILL, fillStart);
+	}
+
+	/**
+	 * Goes through the marked cells a row at a time, merging neighbouring ones.
+	 *
+	 * @param blend whether to blend the image's cells onto the graphics, rather than filling them
+	 */
+	private void drawCells(Graphics2D graphics, boolean[] marked, boolean blend)
+	{
+		for (int row = 0; row < cellRows; row++)
+		{
+			int column = 0;
+			while (column < cellColumns)
+			{
+				if (!marked[row * cellColumns + column])
+				{
+					column++;
+					continue;
+				}
+
+				final int first = column;
+				while (column < cellColumns && marked[row * cellColumns + column])
+				{
+					column++;
+				}
+
+				final int x1 = first << CELL_BITS;
+				final int y1 = row << CELL_BITS;
+				final int x2 = Math.min(column << CELL_BITS, image.getWidth());
+				final int y2 = Math.min(y1 + (1 << CELL_BITS), image.getHeight());
+				if (blend)
+				{
+					graphics.drawImage(image, x1, y1, x2, y2, x1, y1, x2, y2, null);
+				}
+				else
+				{
+					graphics.fillRect(x1, y1, x2 - x1, y2 - y1);
+				}
+			}
+		}
+	}
+
+	private void project(SceneFill fill, LineProjector projector)
+	{
+		path.reset();
+		filledSpans = 0;
+		prepareImage(projector.getCanvasWidth(), projector.getCanvasHeight());
+
+		final int cornerCount = fill.getLocalX().length;
+		if (cornerCount == 0)
+		{
+			return;
+		}
+
+		if (canvasX.length < cornerCount)
+		{
+			canvasX = new int[cornerCount];
+			canvasY = new int[cornerCount];
+		}
+
+		final long projectStart = instrumentation.start();
+		final int canvasWidth = projector.getCanvasWidth();
+		final int canvasHeight = projector.getCanvasHeight();
+		int culledChunks = 0;
+		for (int chunk = 0; chunk < SceneLines.CHUNK_COUNT; chunk++)
+		{
+			final int firstSpan = fill.getChunkStart(chunk);
+			final int endSpan = fill.getChunkStart(chunk + 1);
+			if (firstSpan == endSpan)
+			{
+				continue;
+			}
+
+			final int chunkX = SceneLines.getChunkLocalX(chunk);
+			final int chunkY = SceneLines.getChunkLocalY(chunk);
+			if (!projector.mayBeVisible(chunkX, chunkY, chunkX + CHUNK_LOCAL_SIZE, chunkY + CHUNK_LOCAL_SIZE,
+				fill.getChunkMinHeight(chunk), fill.getChunkMaxHeight(chunk)))
+			{
+				culledChunks++;
+				continue;
+			}
+
+			final int firstCorner = firstSpan * SceneFill.CORNERS;
+			projector.project(fill.getLocalX(), fill.getLocalY(), firstCorner, endSpan * SceneFill.CORNERS - firstCorner, canvasX, canvasY);
+			for (int corner = firstCorner; corner < endSpan * SceneFill.CORNERS; corner += SceneFill.CORNERS)
+			{
+				if (isVisible(corner, canvasWidth, canvasHeight))
+				{
+					path.moveTo(canvasX[corner], canvasY[corner]);
+					path.lineTo(canvasX[corner + 1], canvasY[corner + 1]);
+					path.lineTo(canvasX[corner + 2], canvasY[corner + 2]);
+					path.lineTo(canvasX[corner + 3], canvasY[corner + 3]);
+					path.closePath();
+					filledSpans++;
+				}
+			}
+		}
+		instrumentation.count(layer, Instrumentation.Counter.CHUNKS_CULLED, culledChunks);
+		instrumentation.record(layer, Instrumentation.Stage.PROJECT, projectStart);
+	}
+
+	/**
+	 * Resizes the image to the canvas if needed, dropping what was filled into it.
+	 */
+	private void prepareImage(int width, int height)
+	{
+		if (image == null || image.getWidth() != width || image.getHeight() != height)
+		{
+			image = new BufferedImage(Math.max(width, 1), Math.max(height, 1), BufferedImage.TYPE_INT_ARGB_PRE);
+			cellColumns = (image.getWidth() + (1 << CELL_BITS) - 1) >> CELL_BITS;
+			cellRows = (image.getHeight() + (1 << CELL_BITS) - 1) >> CELL_BITS;
+			cells = new boolean[cellColumns * cellRows];
+			imageCells = new boolean[cells.length];
+		}
+		else
+		{
+			Arrays.fill(cells, false);
+		}
+	}
+
+	/**
+	 * A quad is left out if any corner couldn't be projected, or if all of them are on one side
+	 * of the canvas. The cells a visible quad's bounds cover are marked to be blended.
+	 */
+	private boolean isVisible(int corner, int width, int height)
+	{
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE;
+		int maxY = Integer.MIN_VALUE;
+		for (int i = corner; i < corner + SceneFill.CORNERS; i++)
+		{
+			if (canvasX[i] == LineProjector.UNPROJECTED)
+			{
+				return false;
+			}
+			minX = Math.min(minX, canvasX[i]);
+			minY = Math.min(minY, canvasY[i]);
+			maxX = Math.max(maxX, canvasX[i]);
+			maxY = Math.max(maxY, canvasY[i]);
+		}
+		if (maxX <= 0 || minX >= width || maxY <= 0 || minY >= height)
+		{
+			return false;
+		}
+
+		final int firstColumn = Math.max(minX, 0) >> CELL_BITS;
+		final int lastColumn = Math.min(maxX, width - 1) >> CELL_BITS;
+		for (int row = Math.max(minY, 0) >> CELL_BITS; row <= Math.min(maxY, height - 1) >> CELL_BITS; row++)
+		{
+			Arrays.fill(cells, row * cellColumns + firstColumn, row * cellColumns + lastColumn + 1, true);
+		}
+		return true;
+	}
+}
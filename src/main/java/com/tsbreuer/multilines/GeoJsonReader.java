@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads multi areas from a GeoJSON FeatureCollection of Polygon and MultiPolygon features in
+ * world tile coordinates, with the same properties as the areas of a dataset file. Each
+ * polygon is scanline filled into runs of tiles, a tile being inside when its centre is, so
+ * the rest of the plugin sees the same rectangles it would for a rectangle dataset.
+ * <p>
+ * A {@code Plane} property is accepted, but like rectangle datasets the areas of every plane
+ * are treated as one.
+ */
+final class GeoJsonReader
+{
+	private GeoJsonReader()
+	{
+	}
+
+	static boolean isFeatureCollection(JsonObject root)
+	{
+		final JsonElement type = root.get("type");
+		return type != null && type.isJsonPrimitive() && "FeatureCollection".equals(type.getAsString());
+	}
+
+	/**
+	 * @return the enabled areas outside the wilderness, named as by {@link Dataset#parseAreas}.
+	 * Features without a geometry are left out, as GeoJSON allows them.
+	 * @throws IllegalStateException if a feature is not a polygon or is malformed
+	 */
+	static List<MultiArea> readAreas(JsonObject collection)
+	{
+		final List<MultiArea> areas = new ArrayList<>();
+		for (JsonElement element : collection.get("features").getAsJsonArray())
+		{
+			final JsonObject feature = element.getAsJsonObject();
+			final JsonElement propertiesElement = feature.get("properties");
+			final JsonObject properties = propertiesElement == null || propertiesElement.isJsonNull() ? new JsonObject() : propertiesElement.getAsJsonObject();
+			if (!getBoolean(properties, "Enabled", true) || getBoolean(properties, "Removed", false) || getBoolean(properties, "Wilderness", false))
+			{
+				continue;
+			}
+
+			final JsonElement geometryElement = feature.get("geometry");
+			if (geometryElement == null || geometryElement.isJsonNull())
+			{
+				continue;
+			}
+
+			final JsonObject geometry = geometryElement.getAsJsonObject();
+			final String type = geometry.get("type").getAsString();
+			final JsonArray coordinates = geometry.get("coordinates").getAsJsonArray();
+			final List<Rectangle> rectangles = new ArrayList<>();
+			if (type.equals("Polygon"))
+			{
+				fill(readRings(coordinates), rectangles);
+			}
+			else if (type.equals("MultiPolygon"))
+			{
+				for (JsonElement polygon : coordinates)
+				{
+					fill(readRings(polygon.getAsJsonArray()), rectangles);
+				}
+			}
+			else
+			{
+				throw new IllegalStateException("Unsupported geometry " + type);
+			}
+
+			final JsonElement name = properties.get("Name");
+			areas.add(new MultiArea(name == null || name.isJsonNull() ? "" : name.getAsString(), rectangles));
+		}
+		return MultiArea.withUniqueNames(areas);
+	}
+
+	private static boolean getBoolean(JsonObject properties, String name, boolean defaultValue)
+	{
+		final JsonElement value = properties.get(name);
+		return value == null || value.isJsonNull() ? defaultValue : value.getAsBoolean();
+	}
+
+	/**
+	 * @return the rings of a polygon, each as {@code x0, y0, x1, y1, ...}
+	 */
+	private static List<double[]> readRings(JsonArray polygon)
+	{
+		final List<double[]> rings = new ArrayList<>(polygon.size());
+		for (JsonElement ringElement : polygon)
+		{
+			final JsonArray ring = ringElement.getAsJsonArray();
+			final double[] points = new double[ring.size() * 2];
+			for (int i = 0; i < ring.size(); i++)
+			{
+				final JsonArray position = ring.get(i).getAsJsonArray();
+				points[i * 2] = position.get(0).getAsDouble();
+				points[i * 2 + 1] = position.get(1).getAsDouble();
+			}
+			rings.add(points);
+		}
+		return rings;
+	}
+
+	/**
+	 * Fills a polygon with the even-odd rule, so holes need no special casing, and adds the
+	 * filled tiles as rectangles: runs on one row, joined with the same runs on the rows above.
+	 */
+	private static void fill(List<double[]> rings, List<Rectangle> rectangles)
+	{
+		double minY = Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		int edgeCount = 0;
+		for (double[] ring : rings)
+		{
+			for (int i = 1; i < ring.length; i += 2)
+			{
+				minY = Math.min(minY, ring[i]);
+				maxY = Math.max(maxY, ring[i]);
+			}
+			edgeCount += ring.length / 2;
+		}
+		if (edgeCount == 0)
+		{
+			return;
+		}
+
+		final double[] crossings = new double[edgeCount];
+		// Open runs packed as start << 32 | end, with their first row
+		Map<Long, Integer> open = new HashMap<>();
+		final int firstRow = (int) Math.floor(minY);
+		final int lastRow = (int) Math.ceil(maxY);
+		for (int row = firstRow; row <= lastRow; row++)
+		{
+			final double y = row + 0.5;
+			int count = 0;
+			for (double[] ring : rings)
+			{
+				final int points = ring.length / 2;
+				for (int i = 0; i < points; i++)
+				{
+					// Rings repeat the first point at the end, but don't rely on it
+					final int j = (i + 1) % points;
+					final double y1 = ring[i * 2 + 1];
+					final double y2 = ring[j * 2 + 1];
+					if (y1 <= y && y < y2 || y2 <= y && y < y1)
+					{
+						final double x1 = ring[i * 2];
+						final double x2 = ring[j * 2];
+						crossings[count++] = x1 + (y - y1) * (x2 - x1) / (y2 - y1);
+					}
+				}
+			}
+			Arrays.sort(crossings, 0, count);
+
+			final Map<Long, Integer> next = new HashMap<>();
+			for (int i = 0; i + 1 < count; i += 2)
+			{
+				// Tiles whose centre lies between the two crossings
+				final int start = (int) Math.ceil(crossings[i] - 0.5);
+				final int end = (int) Math.ceil(crossings[i + 1] - 0.5);
+				if (start < end)
+				{
+					final long run = (long) start << 32 | end & 0xFFFFFFFFL;
+					final Integer runFirstRow = open.remove(run);
+					next.put(run, runFirstRow == null ? row : runFirstRow);
+				}
+			}
+
+			for (Map.Entry<Long, Integer> ended : open.entrySet())
+			{
+				addRun(rectangles, ended.getKey(), ended.getValue(), row);
+			}
+			// The last row lies above the polygon, which ends every run
+			open = next;
+		}
+	}
+
+	private static void addRun(List<Rectangle> rectangles, long run, int firstRow, int endRow)
+	{
+		final int start = (int) (run >>> 32);
+		final int end = (int) run;
+		rectangles.add(new Rectangle(start, firstRow, end - start, endRow - firstRow));
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+/**
+ * The lines, tile fills and multi distances of one scene built from one dataset. Snapshots are never
+ * modified, so the overlay always draws lines which belong together, no matter when a new one
+ * is published.
+ */
+final class GeometrySnapshot
+{
+	static final int NOT_INSTANCED = -1;
+
+	static final GeometrySnapshot EMPTY = new GeometrySnapshot(Dataset.EMPTY.getVersion(), 0, -1, -1, NOT_INSTANCED, SceneLines.EMPTY, SceneLines.EMPTY, null, null, DistanceField.EMPTY);
+
+	private final long datasetVersion;
+	private final int spearRange;
+	private final int baseX;
+	private final int baseY;
+	private final int plane;
+	private final SceneLines multiLines;
+	private final SceneLines spearLines;
+	private final SceneFill multiFill;
+	private final SceneFill spearFill;
+	private final DistanceField distanceField;
+
+	/**
+	 * @param multiFill the multi tiles of the scene, or null if the fill is turned off
+	 * @param spearFill the tiles within spear range but outside the multi area, or null if the
+	 * fill is turned off
+	 */
+	GeometrySnapshot(long datasetVersion, int spearRange, int baseX, int baseY, int plane, SceneLines multiLines, SceneLines spearLines,
+		SceneFill multiFill, SceneFill spearFill, DistanceField distanceField)
+	{
+		this.datasetVersion = datasetVersion;
+		this.spearRange = spearRange;
+		this.baseX = baseX;
+		this.baseY = baseY;
+		this.plane = plane;
+		this.multiLines = multiLines;
+		this.spearLines = spearLines;
+		this.multiFill = multiFill;
+		this.spearFill = spearFill;
+		this.distanceField = distanceField;
+	}
+
+	/**
+	 * @param plane the plane an instanced scene was mapped on, or {@link #NOT_INSTANCED}
+	 * @param filled whether the tile fills are needed
+	 * @return whether this snapshot was built from the given dataset and spear range for the
+	 * scene with the given base
+	 */
+	boolean isFor(Dataset dataset, int spearRange, int baseX, int baseY, int plane, boolean filled)
+	{
+		return datasetVersion == dataset.getVersion() && this.spearRange == spearRange && this.baseX == baseX && this.baseY == baseY
+			&& this.plane == plane && (multiFill != null) == filled;
+	}
+
+	/**
+	 * @return the plane the instanced scene was mapped on, or {@link #NOT_INSTANCED}
+	 */
+	int getPlane()
+	{
+		return plane;
+	}
+
+	SceneLines getMultiLines()
+	{
+		return multiLines;
+	}
+
+	SceneLines getSpearLines()
+	{
+		return spearLines;
+	}
+
+	/**
+	 * @return the multi tiles, or null if the fill was turned off when the scene was built
+	 */
+	SceneFill getMultiFill()
+	{
+		return multiFill;
+	}
+
+	/**
+	 * @return the spear tiles, or null if the fill was turned off when the scene was built
+	 */
+	SceneFill getSpearFill()
+	{
+		return spearFill;
+	}
+
+	DistanceField getDistanceField()
+	{
+		return distanceField;
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import net.runelite.api.Constants;
+
+/**
+ * Where the chunks of an instanced scene were copied from, on one plane. The template chunk
+ * and rotation of every scene chunk are read once per scene load, so mapping a scene tile to
+ * its tile in the template is a table lookup and a rotation.
+ */
+final class InstanceChunkMap
+{
+	private static final int CHUNK_SIZE = SceneLines.CHUNK_SIZE;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+	private static final int CHUNK_SHIFT = 3;
+	private static final int NO_CHUNK = -1;
+
+	private final int plane;
+	// By scene chunk, chunkX * CHUNKS_PER_AXIS + chunkY
+	private final int[] templateX = new int[SceneLines.CHUNK_COUNT];
+	private final int[] templateY = new int[SceneLines.CHUNK_COUNT];
+	private final int[] rotation = new int[SceneLines.CHUNK_COUNT];
+
+	private InstanceChunkMap(int plane)
+	{
+		this.plane = plane;
+	}
+
+	/**
+	 * @param instanceTemplateChunks the template chunks of the scene, as returned by the client
+	 */
+	static InstanceChunkMap of(int[][][] instanceTemplateChunks, int plane)
+	{
+		final InstanceChunkMap map = new InstanceChunkMap(plane);
+		for (int chunkX = 0; chunkX < SceneLines.CHUNKS_PER_AXIS; chunkX++)
+		{
+			for (int chunkY = 0; chunkY < SceneLines.CHUNKS_PER_AXIS; chunkY++)
+			{
+				final int chunk = chunkX * SceneLines.CHUNKS_PER_AXIS + chunkY;
+				final int template = instanceTemplateChunks[plane][chunkX][chunkY];
+				if (template == -1)
+				{
+					map.rotation[chunk] = NO_CHUNK;
+					continue;
+				}
+
+				// The same packing WorldPoint.fromLocalInstance reads
+				map.rotation[chunk] = template >> 1 & 0x3;
+				map.templateY[chunk] = (template >> 3 & 0x7FF) * CHUNK_SIZE;
+				map.templateX[chunk] = (template >> 14 & 0x3FF) * CHUNK_SIZE;
+			}
+		}
+		return map;
+	}
+
+	int getPlane()
+	{
+		return plane;
+	}
+
+	/**
+	 * @return whether the template tile of a scene tile is in the mask
+	 */
+	boolean contains(TileMask mask, int sceneX, int sceneY)
+	{
+		final int chunk = (sceneX >> CHUNK_SHIFT) * SceneLines.CHUNKS_PER_AXIS + (sceneY >> CHUNK_SHIFT);
+		final int x = sceneX & CHUNK_MASK;
+		final int y = sceneY & CHUNK_MASK;
+		// Turn the tile back by the chunk's rotation, so it lines up with the template
+		switch (rotation[chunk])
+		{
+			case NO_CHUNK:
+				return false;
+			case 1:
+				return mask.contains(templateX[chunk] + CHUNK_MASK - y, templateY[chunk] + x);
+			case 2:
+				return mask.contains(templateX[chunk] + CHUNK_MASK - x, templateY[chunk] + CHUNK_MASK - y);
+			case 3:
+				return mask.contains(templateX[chunk] + y, templateY[chunk] + CHUNK_MASK - x);
+			default:
+				return mask.contains(templateX[chunk] + x, templateY[chunk] + y);
+		}
+	}
+
+	/**
+	 * @return the tiles of the scene whose template tiles are in the mask, in the world
+	 * coordinates of the instance with the given base
+	 */
+	TileMask toSceneMask(TileMask mask, int baseX, int baseY)
+	{
+		final List<Rectangle> runs = new ArrayList<>();
+		for (int sceneY = 0; sceneY < Constants.SCENE_SIZE; sceneY++)
+		{
+			int start = -1;
+			for (int sceneX = 0; sceneX <= Constants.SCENE_SIZE; sceneX++)
+			{
+				final boolean inside = sceneX < Constants.SCENE_SIZE && contains(mask, sceneX, sceneY);
+				if (inside && start == -1)
+				{
+					start = sceneX;
+				}
+				else if (!inside && start != -1)
+				{
+					runs.add(new Rectangle(baseX + start, baseY + sceneY, sceneX - start, 1));
+					start = -1;
+				}
+			}
+		}
+		return TileMask.of(runs);
+	}
+}
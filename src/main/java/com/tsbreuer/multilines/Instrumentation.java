@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.inject.Singleton;
+
+/**
+ * Opt-in timings and counters for the drawing and loading paths. While disabled, every call
+ * returns straight away, so the hot paths only pay for a volatile read.
+ * <p>
+ * Timings are kept as a count, a total, a maximum and a histogram with one bucket per power
+ * of two nanoseconds, which is enough to estimate percentiles without keeping samples.
+ * Everything can be recorded from any thread, and the drawing paths record it separately for
+ * each {@link Layer} they draw.
+ */
+@Singleton
+class Instrumentation
+{
+	enum Layer
+	{
+		// Loading datasets and building scenes, which no layer is drawn by
+		NONE(""),
+		SCENE("Scene"),
+		MINIMAP("Minimap"),
+		WORLD_MAP("World map");
+
+		private final String name;
+
+		Layer(String name)
+		{
+			this.name = name;
+		}
+
+		/**
+		 * @return the name of a stage or counter recorded for this layer
+		 */
+		String label(Object what)
+		{
+			return this == NONE ? what.toString() : name + ' ' + what.toString().toLowerCase();
+		}
+
+		@Override
+		public String toString()
+		{
+			return name;
+		}
+	}
+
+	enum Stage
+	{
+		// Per frame and layer
+		PROJECT("Project"),
+		CULL("Cull and merge"),
+		DRAW("Draw"),
+		FILL("Fill"),
+		// Per dataset load
+		READ_PROCESSED("Read processed"),
+		DOWNLOAD("Download"),
+		PARSE("Parse"),
+		NORMALIZE("Normalize rectangles"),
+		AREAS("Multi and spear areas"),
+		// Per scene
+		SCENE("Scene build");
+
+		private final String name;
+
+		Stage(String name)
+		{
+			this.name = name;
+		}
+
+		@Override
+		public String toString()
+		{
+			return name;
+		}
+	}
+
+	enum Counter
+	{
+		SEGMENTS_DRAWN("Segments drawn"),
+		SEGMENTS_MERGED("Segments merged"),
+		SEGMENTS_CULLED("Segments culled"),
+		CHUNKS_CULLED("Chunks culled"),
+		SPANS_FILLED("Spans filled"),
+		RECTANGLES_REMOVED("Rectangles removed"),
+		PROJECTION_HITS("Projection cache hits"),
+		PROJECTION_MISSES("Projection cache misses"),
+		REGION_HITS("Region cache hits"),
+		REGION_MISSES("Region cache misses"),
+		LAYER_HITS("Line image hits"),
+		LAYER_MISSES("Line image misses"),
+		TILE_HITS("World map tile hits"),
+		TILE_MISSES("World map tile misses");
+
+		private final String name;
+
+		Counter(String name)
+		{
+			this.name = name;
+		}
+
+		@Override
+		public String toString()
+		{
+			return name;
+		}
+	}
+
+	/**
+	 * Returned by {@link #start()} while disabled. A real clock reading can in theory be zero
+	 * too, which only costs that one sample.
+	 */
+	static final long NOT_TIMED = 0;
+
+	private static final int COUNT = 0;
+	private static final int TOTAL = 1;
+	private static final int MAX = 2;
+	private static final int BUCKETS = 3;
+	private static final int STAGE_SIZE = BUCKETS + Long.SIZE;
+
+	private static final int LAYERS = Layer.values().length;
+
+	private volatile boolean enabled;
+	private final AtomicLongArray stages = new AtomicLongArray(LAYERS * Stage.values().length * STAGE_SIZE);
+	private final AtomicLongArray counters = new AtomicLongArray(LAYERS * Counter.values().length);
+
+	boolean isEnabled()
+	{
+		return enabled;
+	}
+
+	void setEnabled(boolean enabled)
+	{
+		this.enabled = enabled;
+	}
+
+	/**
+	 * @return the time to pass to {@link #record(Stage, long)} when the stage ends
+	 */
+	long start()
+	{
+		return enabled ? System.nanoTime() : NOT_TIMED;
+	}
+
+	/**
+	 * Records the time since {@code start} for a stage which isn't part of drawing a layer.
+	 *
+	 * @return the current time, so that the next stage can start where this one ended
+	 */
+	long record(Stage stage, long start)
+	{
+		return record(Layer.NONE, stage, start);
+	}
+
+	/**
+	 * Records the time since {@code start} for a stage of drawing a layer.
+	 *
+	 * @return the current time, so that the next stage can start where this one ended
+	 */
+	long record(Layer layer, Stage stage, long start)
+	{
+		if (start == NOT_TIMED || !enabled)
+		{
+			return NOT_TIMED;
+		}
+
+		final long now = System.nanoTime();
+		final long elapsed = Math.max(0, now - start);
+		final int offset = offset(layer, stage);
+		stages.incrementAndGet(offset + COUNT);
+		stages.addAndGet(offset + TOTAL, elapsed);
+		stages.accumulateAndGet(offset + MAX, elapsed, Math::max);
+		stages.incrementAndGet(offset + BUCKETS + bucket(elapsed));
+		return now;
+	}
+
+	void count(Counter counter, long amount)
+	{
+		count(Layer.NONE, counter, amount);
+	}
+
+	void count(Layer layer, Counter counter, long amount)
+	{
+		if (enabled && amount != 0)
+		{
+			counters.addAndGet(index(layer, counter), amount);
+		}
+	}
+
+	void reset()
+	{
+		for (int i = 0; i < stages.length(); i++)
+		{
+			stages.set(i, 0);
+		}
+		for (int i = 0; i < counters.length(); i++)
+		{
+			counters.set(i, 0);
+		}
+	}
+
+	long getCount(Layer layer, Stage stage)
+	{
+		return stages.get(offset(layer, stage) + COUNT);
+	}
+
+	long getMeanNanos(Layer layer, Stage stage)
+	{
+		final long count = getCount(layer, stage);
+		return count == 0 ? 0 : stages.get(offset(layer, stage) + TOTAL) / count;
+	}
+
+	long getMaxNanos(Layer layer, Stage stage)
+	{
+		return stages.get(offset(layer, stage) + MAX);
+	}
+
+	/**
+	 * @return an upper bound for the given percentile of the stage's timings, accurate to a
+	 * factor of two
+	 */
+	long getPercentileNanos(Layer layer, Stage stage, double percentile)
+	{
+		final int offset = offset(layer, stage);
+		final long count = stages.get(offset + COUNT);
+		if (count == 0)
+		{
+			return 0;
+		}
+
+		final long rank = (long) Math.ceil(count * percentile / 100);
+		long seen = 0;
+		for (int bucket = 0; bucket < Long.SIZE; bucket++)
+		{
+			seen += stages.get(offset + BUCKETS + bucket);
+			if (seen >= rank)
+			{
+				return Math.min(bucketLimit(bucket), getMaxNanos(layer, stage));
+			}
+		}
+		return getMaxNanos(layer, stage);
+	}
+
+	long getCount(Layer layer, Counter counter)
+	{
+		return counters.get(index(layer, counter));
+	}
+
+	/**
+	 * @return true if the layer was drawn since the last reset
+	 */
+	boolean isRecorded(Layer layer)
+	{
+		for (Stage stage : Stage.values())
+		{
+			if (getCount(layer, stage) != 0)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the share of lookups which were hits, in percent, or -1 if there were none
+	 */
+	int getHitRate(Layer layer, Counter hits, Counter misses)
+	{
+		final long hitCount = getCount(layer, hits);
+		final long total = hitCount + getCount(layer, misses);
+		return total == 0 ? -1 : (int) (hitCount * 100 / total);
+	}
+
+	/**
+	 * Writes all timings and counters as CSV.
+	 */
+	void export(Writer writer)
+	{
+		final PrintWriter out = new PrintWriter(writer);
+		out.println("layer,stage,count,mean_ns,p50_ns,p99_ns,max_ns");
+		for (Layer layer : Layer.values())
+		{
+			for (Stage stage : Stage.values())
+			{
+				if (getCount(layer, stage) != 0)
+				{
+					out.println(layer.name() + ',' + stage.name() + ',' + getCount(layer, stage) + ',' + getMeanNanos(layer, stage) + ','
+						+ getPercentileNanos(layer, stage, 50) + ',' + getPercentileNanos(layer, stage, 99) + ',' + getMaxNanos(layer, stage));
+				}
+			}
+		}
+		out.println();
+		out.println("layer,counter,value");
+		for (Layer layer : Layer.values())
+		{
+			for (Counter counter : Counter.values())
+			{
+				if (getCount(layer, counter) != 0)
+				{
+					out.println(layer.name() + ',' + counter.name() + ',' + getCount(layer, counter));
+				}
+			}
+		}
+		out.flush();
+	}
+
+	private static int offset(Layer layer, Stage stage)
+	{
+		return (layer.ordinal() * Stage.values().length + stage.ordinal()) * STAGE_SIZE;
+	}
+
+	private static int index(Layer layer, Counter counter)
+	{
+		return layer.ordinal() * Counter.values().length + counter.ordinal();
+	}
+
+	/**
+	 * Bucket n holds timings below 2^n nanoseconds which don't fit in bucket n - 1.
+	 */
+	private static int bucket(long nanos)
+	{
+		return Math.min(Long.SIZE - Long.numberOfLeadingZeros(nanos), Long.SIZE - 1);
+	}
+
+	private static long bucketLimit(int bucket)
+	{
+		return bucket >= Long.SIZE - 1 ? Long.MAX_VALUE : 1L << bucket;
+	}
+}
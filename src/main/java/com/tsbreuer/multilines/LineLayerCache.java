@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Objects;
+
+/**
+ * An off-screen image holding the drawn line layers, which is reused for as long as the
+ * camera, the lines and their colours stay the same. Redrawing it costs a clear and a blit on
+ * top of drawing the lines, so it only pays off while the camera stands still.
+ */
+class LineLayerCache
+{
+	private final CameraState cachedCamera = new CameraState();
+	private GeometrySnapshot cachedSnapshot;
+	private Color cachedMultiColor;
+	private Color cachedSpearColor;
+	private Color cachedMultiFillColor;
+	private Color cachedSpearFillColor;
+	private BufferedImage image;
+
+	/**
+	 * @param spearColor the colour of the spear lines, or null if they are hidden
+	 * @param multiFillColor the colour of the multi tiles, or null if they aren't filled
+	 * @param spearFillColor the colour of the spear tiles, or null if they aren't filled
+	 * @return whether the image holds the layers as they would be drawn now
+	 */
+	boolean isValid(GeometrySnapshot snapshot, CameraState camera, Color multiColor, Color spearColor, Color multiFillColor, Color spearFillColor)
+	{
+		return image != null
+			&& snapshot == cachedSnapshot
+			&& camera.equals(cachedCamera)
+			&& multiColor.equals(cachedMultiColor)
+			&& Objects.equals(spearColor, cachedSpearColor)
+			&& Objects.equals(multiFillColor, cachedMultiFillColor)
+			&& Objects.equals(spearFillColor, cachedSpearFillColor);
+	}
+
+	/**
+	 * Clears the image, resizing it to the canvas if needed, and remembers what is about to be
+	 * drawn on it.
+	 *
+	 * @param target the graphics the image will be drawn to, whose settings are copied
+	 * @return graphics to draw the layers with, to be disposed by the caller
+	 */
+	Graphics2D redraw(Graphics2D target, GeometrySnapshot snapshot, CameraState camera, Color multiColor, Color spearColor,
+		Color multiFillColor, Color spearFillColor)
+	{
+		if (image == null || image.getWidth() != camera.canvasWidth || image.getHeight() != camera.canvasHeight)
+		{
+			image = target.getDeviceConfiguration().createCompatibleImage(
+				Math.max(camera.canvasWidth, 1), Math.max(camera.canvasHeight, 1), Transparency.TRANSLUCENT);
+		}
+
+		cachedSnapshot = snapshot;
+		cachedCamera.copyFrom(camera);
+		cachedMultiColor = multiColor;
+		cachedSpearColor = spearColor;
+		cachedMultiFillColor = multiFillColor;
+		cachedSpearFillColor = spearFillColor;
+
+		final Graphics2D graphics = image.createGraphics();
+		graphics.setComposite(AlphaComposite.Clear);
+		graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+		graphics.setComposite(AlphaComposite.SrcOver);
+		graphics.setRenderingHints(target.getRenderingHints());
+		return graphics;
+	}
+
+	void draw(Graphics2D graphics)
+	{
+		graphics.drawImage(image, 0, 0, null);
+	}
+
+	/**
+	 * Drops the image, for when caching is turned off.
+	 */
+	void clear()
+	{
+		image = null;
+		cachedSnapshot = null;
+	}
+}
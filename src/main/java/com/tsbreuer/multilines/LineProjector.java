@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+/**
+ * Projects local scene coordinates onto the canvas in bulk, with the camera as of the last
+ * call to {@link #captureCamera(CameraState)}.
+ */
+interface LineProjector
+{
+	/**
+	 * Canvas x of a point which could not be projected, for example because it is behind
+	 * the camera or outside of the scene.
+	 */
+	int UNPROJECTED = Integer.MIN_VALUE;
+
+	/**
+	 * Projects {@code count} tile corners starting at {@code offset} onto the canvas on the
+	 * current plane, writing the results to the same indices of {@code canvasX} and
+	 * {@code canvasY}.
+	 */
+	void project(int[] localX, int[] localY, int offset, int count, int[] canvasX, int[] canvasY);
+
+	/**
+	 * Tests a box of the scene against the view, without projecting what is inside it.
+	 *
+	 * @return false if nothing in the box can end up on the canvas, true if something might
+	 */
+	boolean mayBeVisible(int minLocalX, int minLocalY, int maxLocalX, int maxLocalY, int minHeight, int maxHeight);
+
+	/**
+	 * Reads the current camera, and stores the state which decides whether previously
+	 * projected points are still valid.
+	 */
+	void captureCamera(CameraState state);
+
+	int getCanvasWidth();
+
+	int getCanvasHeight();
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Stroke;
+import net.runelite.api.Perspective;
+
+/**
+ * Draws one layer of {@link SceneLines}. Chunks of the scene which are out of view are
+ * skipped as a whole, every other vertex is projected exactly once per frame into buffers
+ * owned by the renderer, and consecutive visible segments are drawn as a single
+ * polyline, so rendering does not allocate once the buffers have grown to the scene size.
+ * <p>
+ * The projected polylines are kept until either the lines or the camera change, so frames
+ * where nothing moved only issue the draw calls.
+ */
+class LineRenderer
+{
+	private static final Stroke STROKE = new BasicStroke(1);
+
+	/**
+	 * Consecutive segments are merged when the sine of the angle between them is at most
+	 * one over this margin.
+	 */
+	private static final long PARALLEL_MARGIN = 10;
+
+	private static final int CHUNK_LOCAL_SIZE = SceneLines.CHUNK_SIZE << Perspective.LOCAL_COORD_BITS;
+
+	private final Instrumentation instrumentation;
+	private final Instrumentation.Layer layer;
+	private final CameraState camera = new CameraState();
+	private final CameraState cachedCamera = new CameraState();
+	private SceneLines cachedLines;
+
+	private int[] canvasX = new int[0];
+	private int[] canvasY = new int[0];
+
+	// Visible polylines of the cached frame, stored back to back
+	private int[] drawX = new int[0];
+	private int[] drawY = new int[0];
+	private int[] runStarts = new int[1];
+	private int runCount;
+	private int drawLength;
+	private int visibleSegments;
+	private int culledSegments;
+	private final boolean[] chunkVisible = new boolean[SceneLines.CHUNK_COUNT];
+
+	// Graphics has no offset variant of drawPolyline, so each run is copied here to be drawn
+	private int[] runX = new int[0];
+	private int[] runY = new int[0];
+
+	LineRenderer(Instrumentation instrumentation, Instrumentation.Layer layer)
+	{
+		this.instrumentation = instrumentation;
+		this.layer = layer;
+	}
+
+	void render(Graphics2D graphics, SceneLines lines, LineProjector projector, Color color)
+	{
+		projector.captureCamera(camera);
+		if (lines != cachedLines || !camera.equals(cachedCamera))
+		{
+			project(lines, projector);
+			cachedLines = lines;
+			cachedCamera.copyFrom(camera);
+			instrumentation.count(layer, Instrumentation.Counter.PROJECTION_MISSES, 1);
+		}
+		else
+		{
+			instrumentation.count(layer, Instrumentation.Counter.PROJECTION_HITS, 1);
+		}
+
+		final int drawnSegments = drawLength - runCount;
+		instrumentation.count(layer, Instrumentation.Counter.SEGMENTS_DRAWN, drawnSegments);
+		instrumentation.count(layer, Instrumentation.Counter.SEGMENTS_MERGED, visibleSegments - drawnSegments);
+		instrumentation.count(layer, Instrumentation.Counter.SEGMENTS_CULLED, culledSegments);
+		if (runCount == 0)
+		{
+			return;
+		}
+
+		final long drawStart = instrumentation.start();
+		graphics.setColor(color);
+		graphics.setStroke(STROKE);
+		for (int run = 0; run < runCount; run++)
+		{
+			final int start = runStarts[run];
+			final int length = runStarts[run + 1] - start;
+			System.arraycopy(drawX, start, runX, 0, length);
+			System.arraycopy(drawY, start, runY, 0, length);
+			graphics.drawPolyline(runX, runY, length);
+		}
+		instrumentation.record(layer, Instrumentation.Stage.DRAW, drawStart);
+	}
+
+	private void project(SceneLines lines, LineProjector projector)
+	{
+		runCount = 0;
+		drawLength = 0;
+		runStarts[0] = 0;
+		visibleSegments = 0;
+		culledSegments = 0;
+
+		final int vertexCount = lines.getVertexCount();
+		if (vertexCount == 0)
+		{
+			return;
+		}
+
+		ensureCapacity(vertexCount);
+		final long projectStart = instrumentation.start();
+		int culledChunks = 0;
+		for (int chunk = 0; chunk < SceneLines.CHUNK_COUNT; chunk++)
+		{
+			final int firstPolyline = lines.getChunkStart(chunk);
+			final int endPolyline = lines.getChunkStart(chunk + 1);
+			chunkVisible[chunk] = false;
+			if (firstPolyline == endPolyline)
+			{
+				continue;
+			}
+
+			final int firstVertex = lines.getPolylineStart(firstPolyline);
+			final int endVertex = lines.getPolylineStart(endPolyline);
+			final int chunkX = SceneLines.getChunkLocalX(chunk);
+			final int chunkY = SceneLines.getChunkLocalY(chunk);
+			if (!projector.mayBeVisible(chunkX, chunkY, chunkX + CHUNK_LOCAL_SIZE, chunkY + CHUNK_LOCAL_SIZE,
+				lines.getChunkMinHeight(chunk), lines.getChunkMaxHeight(chunk)))
+			{
+				culledSegments += endVertex - firstVertex - (endPolyline - firstPolyline);
+				culledChunks++;
+				continue;
+			}
+
+			chunkVisible[chunk] = true;
+			projector.project(lines.getLocalX(), lines.getLocalY(), firstVertex, endVertex - firstVertex, canvasX, canvasY);
+		}
+		instrumentation.count(layer, Instrumentation.Counter.CHUNKS_CULLED, culledChunks);
+		final long cullStart = instrumentation.record(layer, Instrumentation.Stage.PROJECT, projectStart);
+
+		final int canvasWidth = projector.getCanvasWidth();
+		final int canvasHeight = projector.getCanvasHeight();
+
+		for (int chunk = 0; chunk < SceneLines.CHUNK_COUNT; chunk++)
+		{
+			if (chunkVisible[chunk])
+			{
+				cullPolylines(lines, lines.getChunkStart(chunk), lines.getChunkStart(chunk + 1), canvasWidth, canvasHeight);
+			}
+		}
+		instrumentation.record(layer, Instrumentation.Stage.CULL, cullStart);
+	}
+
+	/**
+	 * Turns the visible parts of the projected polylines into runs to draw.
+	 */
+	private void cullPolylines(SceneLines lines, int firstPolyline, int endPolyline, int canvasWidth, int canvasHeight)
+	{
+		for (int polyline = firstPolyline; polyline < endPolyline; polyline++)
+		{
+			final int start = lines.getPolylineStart(polyline);
+			final int end = lines.getPolylineStart(polyline + 1);
+
+			for (int i = start + 1; i < end; i++)
+			{
+				final int x1 = canvasX[i - 1];
+				final int y1 = canvasY[i - 1];
+				final int x2 = canvasX[i];
+				final int y2 = canvasY[i];
+
+				final boolean visible = x1 != LineProjector.UNPROJECTED && x2 != LineProjector.UNPROJECTED
+					&& mayCrossCanvas(x1, y1, x2, y2, canvasWidth, canvasHeight);
+				if (!visible)
+				{
+					culledSegments++;
+					endRun();
+					continue;
+				}
+
+				visibleSegments++;
+				if (drawLength == runStarts[runCount])
+				{
+					drawX[drawLength] = x1;
+					drawY[drawLength] = y1;
+					drawLength++;
+				}
+				append(x2, y2);
+			}
+
+			endRun();
+		}
+	}
+
+	/**
+	 * Segments can span several tiles, so one can cross the canvas with both ends off it. Only
+	 * those entirely on one side of the canvas are left out.
+	 */
+	private static boolean mayCrossCanvas(int x1, int y1, int x2, int y2, int width, int height)
+	{
+		return !(x1 <= 0 && x2 <= 0 || x1 >= width && x2 >= width || y1 <= 0 && y2 <= 0 || y1 >= height && y2 >= height);
+	}
+
+	/**
+	 * Adds a point to the current run, replacing the last point instead if the new segment
+	 * continues the previous one in the same direction.
+	 */
+	private void append(int x, int y)
+	{
+		if (drawLength - runStarts[runCount] >= 2)
+		{
+			final long ax = drawX[drawLength - 1] - drawX[drawLength - 2];
+			final long ay = drawY[drawLength - 1] - drawY[drawLength - 2];
+			final long bx = x - drawX[drawLength - 1];
+			final long by = y - drawY[drawLength - 1];
+			final long cross = ax * by - ay * bx;
+			final long dot = ax * bx + ay * by;
+			if (dot > 0 && cross * cross * PARALLEL_MARGIN * PARALLEL_MARGIN <= (ax * ax + ay * ay) * (bx * bx + by * by))
+			{
+				drawX[drawLength - 1] = x;
+				drawY[drawLength - 1] = y;
+				return;
+			}
+		}
+
+		drawX[drawLength] = x;
+		drawY[drawLength] = y;
+		drawLength++;
+	}
+
+	private void endRun()
+	{
+		if (drawLength - runStarts[runCount] > 1)
+		{
+			runCount++;
+		}
+		else
+		{
+			drawLength = runStarts[runCount];
+		}
+		runStarts[runCount] = drawLength;
+	}
+
+	private void ensureCapacity(int vertexCount)
+	{
+		if (canvasX.length < vertexCount)
+		{
+			canvasX = new int[vertexCount];
+			canvasY = new int[vertexCount];
+			drawX = new int[vertexCount];
+			drawY = new int[vertexCount];
+			runX = new int[vertexCount];
+			runY = new int[vertexCount];
+			runStarts = new int[vertexCount + 2];
+		}
+	}
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.awt.Rectangle;
+import javax.inject.Inject;
+import net.runelite.api.Client;
+import net.runelite.api.Perspective;
+import net.runelite.api.Player;
+import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.widgets.ComponentID;
+import net.runelite.api.widgets.Widget;
+
+/**
+ * Projects scene lines onto the minimap, the same way as
+ * {@link Perspective#localToMinimap(Client, LocalPoint)} but without allocating or a distance
+ * limit. Lines are clipped to the minimap when drawn instead.
+ */
+class MinimapLineProjector implements LineProjector
+{
+	private static final int[] DRAW_AREAS = {
+		ComponentID.FIXED_VIEWPORT_MINIMAP_DRAW_AREA,
+		ComponentID.RESIZABLE_VIEWPORT_MINIMAP_DRAW_AREA,
+		ComponentID.RESIZABLE_VIEWPORT_BOTTOM_LINE_MINIMAP_DRAW_AREA,
+	};
+
+	private final Client client;
+
+	private final Rectangle bounds = new Rectangle();
+	private boolean visible;
+	private int playerX;
+	private int playerY;
+	private int angleSin;
+	private int angleCos;
+	// Minimap pixels per local unit, in 1/65536ths
+	private int zoom;
+	private int centerX;
+	private int centerY;
+
+	@Inject
+	MinimapLineProjector(Client client)
+	{
+		this.client = client;
+	}
+
+	/**
+	 * @return the bounds of the minimap on the canvas, valid once the camera is captured and
+	 * the minimap is visible
+	 */
+	Rectangle getBounds()
+	{
+		return bounds;
+	}
+
+	/**
+	 * @return whether the minimap was on screen when the camera was captured
+	 */
+	boolean isVisible()
+	{
+		return visible;
+	}
+
+	@Override
+	public void project(int[] localX, int[] localY, int offset, int count, int[] canvasX, int[] canvasY)
+	{
+		for (int i = offset; i < offset + count; i++)
+		{
+			final int x = (int) ((long) (localX[i] - playerX) * zoom >> 16);
+			final int y = (int) ((long) (localY[i] - playerY) * zoom >> 16);
+			canvasX[i] = centerX + (y * angleSin + x * angleCos >> 16);
+			canvasY[i] = centerY + (x * angleSin - y * angleCos >> 16);
+		}
+	}
+
+	@Override
+	public boolean mayBeVisible(int minLocalX, int minLocalY, int maxLocalX, int maxLocalY, int minHeight, int maxHeight)
+	{
+		if (!visible)
+		{
+			return false;
+		}
+
+		// The box turns with the map, so test the circle around it against the circle of the map
+		final long boxRadius = (long) (maxLocalX - minLocalX + maxLocalY - minLocalY) * zoom >> 17;
+		final long x = (long) ((minLocalX + maxLocalX) / 2 - playerX) * zoom >> 16;
+		final long y = (long) ((minLocalY + maxLocalY) / 2 - playerY) * zoom >> 16;
+		final long reach = boxRadius + Math.max(bounds.width, bounds.height) / 2;
+		return x * x + y * y <= reach * reach;
+	}
+
+	@Override
+	public void captureCamera(CameraState state)
+	{
+		final Widget drawArea = findDrawArea();
+		final Player player = client.getLocalPlayer();
+		visible = drawArea != null && player != null;
+		if (visible)
+		{
+			final LocalPoint location = player.getLocalLocation();
+			bounds.setBounds(drawArea.getBounds());
+			playerX = location.getX();
+			playerY = location.getY();
+			final int angle = client.getMapAngle() & 0x7FF;
+			angleSin = Perspective.SINE[angle];
+			angleCos = Perspective.COSINE[angle];
+			zoom = (int) (client.getMinimapZoom() * 65536 / Perspective.LOCAL_TILE_SIZE);
+			centerX = bounds.x + bounds.width / 2;
+			centerY = bounds.y + bounds.height / 2;
+		}
+
+		// The minimap has no camera, these are the values which place its points instead
+		state.cameraX = playerX;
+		state.cameraY = playerY;
+		state.cameraZ = 0;
+		state.cameraPitch = 0;
+		state.cameraYaw = client.getMapAngle();
+		state.scale = zoom;
+		state.viewportWidth = bounds.width;
+		state.viewportHeight = bounds.height;
+		state.viewportXOffset = bounds.x;
+		state.viewportYOffset = bounds.y;
+		state.canvasWidth = client.getCanvasWidth();
+		state.canvasHeight = client.getCanvasHeight();
+		state.plane = 0;
+	}
+
+	@Override
+	public int getCanvasWidth()
+	{
+		return client.getCanvasWidth();
+	}
+
+	@Override
+	public int getCanvasHeight()
+	{
+		return client.getCanvasHeight();
+	}
+
+	private Widget findDrawArea()
+	{
+		for (int componentId : DRAW_AREAS)
+		{
+			final Widget widget = client.getWidget(componentId);
+			if (widget != null && !widget.isHidden())
+			{
+				return widget;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One named area of a dataset, along with a hash of its rectangles which tells whether it
+ * changed between two versions of the dataset.
+ */
+final class MultiArea
+{
+	private final String name;
+	private final List<Rectangle> rectangles;
+	private final long hash;
+
+	MultiArea(String name, List<Rectangle> rectangles)
+	{
+		this.name = name;
+		this.rectangles = Collections.unmodifiableList(rectangles);
+		this.hash = hash(rectangles);
+	}
+
+	/**
+	 * Tells apart areas which share a name by adding the hash of their rectangles to it, so
+	 * each keeps its name wherever it is in the file. Areas which repeat both the name and the
+	 * rectangles of an earlier one add nothing and are left out.
+	 */
+	static List<MultiArea> withUniqueNames(List<MultiArea> areas)
+	{
+		final Map<String, Integer> counts = new HashMap<>();
+		for (MultiArea area : areas)
+		{
+			counts.merge(area.getName(), 1, Integer::sum);
+		}
+
+		final List<MultiArea> named = new ArrayList<>(areas.size());
+		final Set<String> names = new HashSet<>();
+		for (MultiArea area : areas)
+		{
+			final MultiArea unique = counts.get(area.getName()) == 1 ? area
+				: new MultiArea(area.getName() + " #" + Long.toHexString(area.getHash()), area.getRectangles());
+			if (names.add(unique.getName()))
+			{
+				named.add(unique);
+			}
+		}
+		return named;
+	}
+
+	private static long hash(List<Rectangle> rectangles)
+	{
+		long hash = rectangles.size();
+		for (Rectangle rectangle : rectangles)
+		{
+			hash = hash * 31 + rectangle.x;
+			hash = hash * 31 + rectangle.y;
+			hash = hash * 31 + rectangle.width;
+			hash = hash * 31 + rectangle.height;
+		}
+		return hash;
+	}
+
+	/**
+	 * @return the name of the area, unique within its dataset
+	 */
+	String getName()
+	{
+		return name;
+	}
+
+	List<Rectangle> getRectangles()
+	{
+		return rectangles;
+	}
+
+	long getHash()
+	{
+		return hash;
+	}
+}
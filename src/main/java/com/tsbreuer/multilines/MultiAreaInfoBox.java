@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.awt.Color;
+import net.runelite.client.ui.overlay.infobox.InfoBox;
+
+/**
+ * Shows how many tiles the local player is from a multi-combat area, coloured by whether they
+ * are within spear range of it. The distance is set once per game tick, so rendering only
+ * reads a field.
+ */
+class MultiAreaInfoBox extends InfoBox
+{
+	private final MultiLinesConfig config;
+	private volatile int distance = DistanceField.UNKNOWN;
+
+	MultiAreaInfoBox(MultiLinesPlugin plugin, MultiLinesConfig config)
+	{
+		super(null, plugin);
+		this.config = config;
+	}
+
+	/**
+	 * @param distance the player's distance from multi, as found in a {@link DistanceField}
+	 */
+	void setDistance(int distance)
+	{
+		this.distance = distance;
+	}
+
+	@Override
+	public String getText()
+	{
+		final int distance = this.distance;
+		return distance == 0 ? "Multi" : Integer.toString(distance);
+	}
+
+	@Override
+	public Color getTextColor()
+	{
+		final int distance = this.distance;
+		if (distance == 0)
+		{
+			return config.multiLinesColor();
+		}
+		return distance <= config.spearRange() ? config.spearLinesColor() : Color.WHITE;
+	}
+
+	@Override
+	public String getTooltip()
+	{
+		final int distance = this.distance;
+		if (distance == 0)
+		{
+			return "In a multi-combat area";
+		}
+		final int spearRange = config.spearRange();
+		if (distance <= spearRange)
+		{
+			return distance + " tiles from multi, within spear range";
+		}
+		return distance + " tiles from multi, " + (distance - spearRange) + " from spear range";
+	}
+
+	@Override
+	public boolean render()
+	{
+		return config.showInfoBox() && distance != DistanceField.UNKNOWN;
+	}
+}
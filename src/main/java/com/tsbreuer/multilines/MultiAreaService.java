@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import net.runelite.api.coords.WorldPoint;
+
+/**
+ * Answers whether a tile is in a multi-combat area, or within spear range of one, for the
+ * dataset currently in use. Each query is a lookup into the region bitmaps built when the
+ * dataset was loaded, so it is cheap enough to call for every actor on every game tick, from
+ * any thread. A reach the bitmaps haven't been grown for, which is any other than the
+ * configured spear range, is answered by looking at every tile within it instead, which
+ * takes up to a few hundred lookups.
+ * <p>
+ * Within this plugin the service is injected. Other plugins are loaded apart from this one
+ * and can't inject it, so the plugin posts the lookups of {@link #getLookups} on the event bus
+ * as a {@code PluginMessage} named {@value #LOOKUPS_MESSAGE} in the {@value #NAMESPACE}
+ * namespace. It does so when it starts, and again whenever a message named
+ * {@value #REQUEST_MESSAGE} is posted in that namespace, for plugins started after it.
+ * <p>
+ * The dataset only covers areas outside the wilderness, and has no notion of planes.
+ */
+@Singleton
+public class MultiAreaService
+{
+	/**
+	 * The largest range {@link #isWithinReach} answers for, the same as the spear range setting
+	 */
+	public static final int MAX_RANGE = 16;
+
+	public static final String NAMESPACE = "multilines";
+	public static final String LOOKUPS_MESSAGE = "lookups";
+	public static final String REQUEST_MESSAGE = "request";
+
+	private final MultiLinesConfig config;
+	private volatile Dataset dataset = Dataset.EMPTY;
+
+	@Inject
+	MultiAreaService(MultiLinesConfig config)
+	{
+		this.config = config;
+	}
+
+	void setDataset(Dataset dataset)
+	{
+		this.dataset = dataset;
+	}
+
+	/**
+	 * @return whether any dataset has been loaded yet. Until then every query answers false.
+	 */
+	public boolean isLoaded()
+	{
+		return dataset != Dataset.EMPTY;
+	}
+
+	public boolean isInMulti(WorldPoint point)
+	{
+		return isInMulti(point.getX(), point.getY());
+	}
+
+	public boolean isInMulti(int x, int y)
+	{
+		return dataset.getMultiArea().contains(x, y);
+	}
+
+	/**
+	 * @return whether the tile is in a multi-combat area or within the configured spear range
+	 * of one
+	 */
+	public boolean isInSpearRange(WorldPoint point)
+	{
+		return isInSpearRange(point.getX(), point.getY());
+	}
+
+	public boolean isInSpearRange(int x, int y)
+	{
+		return isWithinReach(x, y, config.spearRange());
+	}
+
+	/**
+	 * @return whether the tile is in a multi-combat area or at most {@code range} steps along
+	 * the axes from one
+	 * @throws IllegalArgumentException if the range is negative or above {@link #MAX_RANGE}
+	 */
+	public boolean isWithinReach(WorldPoint point, int range)
+	{
+		return isWithinReach(point.getX(), point.getY(), range);
+	}
+
+	public boolean isWithinReach(int x, int y, int range)
+	{
+		if (range < 0 || range > MAX_RANGE)
+		{
+			throw new IllegalArgumentException("range must be between 0 and " + MAX_RANGE + ": " + range);
+		}
+
+		final Dataset current = dataset;
+		final TileMask reach = current.peekReach(range);
+		if (reach != null)
+		{
+			return reach.contains(x, y);
+		}
+
+		// Growing the reach would take the whole world on the caller's thread
+		final TileMask multiArea = current.getMultiArea();
+		for (int dx = -range; dx <= range; dx++)
+		{
+			final int spread = range - Math.abs(dx);
+			for (int dy = -spread; dy <= spread; dy++)
+			{
+				if (multiArea.contains(x + dx, y + dy))
+				{
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the queries of this service as types other plugins share with it: a
+	 * {@link BooleanSupplier} under {@code isLoaded}, a {@code Predicate<WorldPoint>} under
+	 * {@code isInMulti} and {@code isInSpearRange}, and a {@code BiPredicate<WorldPoint, Integer>}
+	 * under {@code isWithinReach}. They follow the dataset in use, so they stay valid across loads.
+	 */
+	Map<String, Object> getLookups()
+	{
+		final BooleanSupplier isLoaded = this::isLoaded;
+		final Predicate<WorldPoint> isInMulti = this::isInMulti;
+		final Predicate<WorldPoint> isInSpearRange = this::isInSpearRange;
+		final BiPredicate<WorldPoint, Integer> isWithinReach = this::isWithinReach;
+		return Map.of(
+			"isLoaded", isLoaded,
+			"isInMulti", isInMulti,
+			"isInSpearRange", isInSpearRange,
+			"isWithinReach", isWithinReach);
+	}
+}
@@ -108,4 +108,139 @@ public interface MultiLinesConfig extends Config
 	{
 		return Color.ORANGE;
 	}
+
+	@ConfigItem(
+		position = 4,
+		keyName = "spearRange",
+		name = "Spear range",
+		description = "How many tiles from a multi-combat zone the spear lines are drawn, for the dragon spear or any other push",
+		section = multiLines
+	)
+	@Range(
+		min = 1,
+		max = 16
+	)
+	default int spearRange()
+	{
+		return 4;
+	}
+
+	@ConfigItem(
+		position = 5,
+		keyName = "dataRefreshInterval",
+		name = "Data refresh interval",
+		description = "How long the downloaded multi areas are used before checking for a newer version",
+		section = multiLines
+	)
+	@Units(Units.MINUTES)
+	default int dataRefreshInterval()
+	{
+		return 60;
+	}
+
+	@ConfigItem(
+		position = 6,
+		keyName = "showInfoBox",
+		name = "Show infobox",
+		description = "Show how many tiles you are from a multi-combat area while you are close to one",
+		section = multiLines
+	)
+	default boolean showInfoBox()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		position = 7,
+		keyName = "cacheLineImage",
+		name = "Reuse drawn lines",
+		description = "Keep the drawn lines in an image and reuse it while the camera stands still. Saves work while idle, costs a little while the camera moves",
+		section = multiLines
+	)
+	default boolean cacheLineImage()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		position = 8,
+		keyName = "showWorldMapLines",
+		name = "Show on world map",
+		description = "Show the multi lines, and the spear lines if enabled, on the world map",
+		section = multiLines
+	)
+	default boolean showWorldMapLines()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		position = 9,
+		keyName = "showMinimapLines",
+		name = "Show on minimap",
+		description = "Show the multi lines, and the spear lines if enabled, on the minimap",
+		section = multiLines
+	)
+	default boolean showMinimapLines()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		position = 10,
+		keyName = "fillTiles",
+		name = "Fill tiles",
+		description = "Fill the multi-combat tiles, and the spear tiles if spear lines are shown, with a translucent colour",
+		section = multiLines
+	)
+	default boolean fillTiles()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		position = 11,
+		keyName = "multiFillColor",
+		name = "Multi fill color",
+		description = "Color the multi-combat tiles are filled with",
+		section = multiLines
+	)
+	@Alpha
+	default Color multiFillColor()
+	{
+		return new Color(255, 0, 0, 40);
+	}
+
+	@ConfigItem(
+		position = 12,
+		keyName = "spearFillColor",
+		name = "Spear fill color",
+		description = "Color the tiles within spear range of a multi-combat zone are filled with",
+		section = multiLines
+	)
+	@Alpha
+	default Color spearFillColor()
+	{
+		return new Color(255, 200, 0, 40);
+	}
+
+	@ConfigSection(
+		name = "Debug",
+		description = "",
+		position = 3,
+		closedByDefault = true
+	)
+	String debug = "debug";
+
+	@ConfigItem(
+		position = 1,
+		keyName = "instrumentation",
+		name = "Record timings",
+		description = "Time how long drawing and loading the lines takes and show the results in an overlay. Type ::multilines export to save them, or ::multilines reset to start over",
+		section = debug
+	)
+	default boolean instrumentation()
+	{
+		return false;
+	}
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import javax.inject.Inject;
+import net.runelite.client.ui.overlay.OverlayPanel;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.components.LineComponent;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+
+/**
+ * Lists the timings and counters collected by {@link Instrumentation} while it is enabled.
+ */
+class MultiLinesDebugOverlay extends OverlayPanel
+{
+	private final Instrumentation instrumentation;
+
+	@Inject
+	private MultiLinesDebugOverlay(MultiLinesPlugin plugin, Instrumentation instrumentation)
+	{
+		super(plugin);
+		setPosition(OverlayPosition.TOP_LEFT);
+		this.instrumentation = instrumentation;
+	}
+
+	@Override
+	public Dimension render(Graphics2D graphics)
+	{
+		if (!instrumentation.isEnabled())
+		{
+			return null;
+		}
+
+		panelComponent.getChildren().add(TitleComponent.builder()
+			.text("Multi Lines (mean / p99 / max us)")
+			.build());
+		for (Instrumentation.Layer layer : Instrumentation.Layer.values())
+		{
+			for (Instrumentation.Stage stage : Instrumentation.Stage.values())
+			{
+				if (instrumentation.getCount(layer, stage) == 0)
+				{
+					continue;
+				}
+
+				panelComponent.getChildren().add(LineComponent.builder()
+					.left(layer.label(stage))
+					.right(micros(instrumentation.getMeanNanos(layer, stage)) + " / "
+						+ micros(instrumentation.getPercentileNanos(layer, stage, 99)) + " / "
+						+ micros(instrumentation.getMaxNanos(layer, stage)))
+					.build());
+			}
+		}
+
+		addCount(Instrumentation.Layer.NONE, Instrumentation.Counter.RECTANGLES_REMOVED);
+		addHitRate(Instrumentation.Layer.NONE, "Region cache", Instrumentation.Counter.REGION_HITS, Instrumentation.Counter.REGION_MISSES);
+		// Only the layers being drawn, each with counters of its own
+		for (Instrumentation.Layer layer : new Instrumentation.Layer[]{Instrumentation.Layer.SCENE, Instrumentation.Layer.MINIMAP})
+		{
+			if (!instrumentation.isRecorded(layer))
+			{
+				continue;
+			}
+
+			for (Instrumentation.Counter counter : new Instrumentation.Counter[]{
+				Instrumentation.Counter.SEGMENTS_DRAWN,
+				Instrumentation.Counter.SEGMENTS_MERGED,
+				Instrumentation.Counter.SEGMENTS_CULLED,
+				Instrumentation.Counter.CHUNKS_CULLED})
+			{
+				addCount(layer, counter);
+			}
+			addHitRate(layer, "projection cache", Instrumentation.Counter.PROJECTION_HITS, Instrumentation.Counter.PROJECTION_MISSES);
+		}
+		if (instrumentation.isRecorded(Instrumentation.Layer.SCENE))
+		{
+			addCount(Instrumentation.Layer.SCENE, Instrumentation.Counter.SPANS_FILLED);
+			addHitRate(Instrumentation.Layer.SCENE, "line image", Instrumentation.Counter.LAYER_HITS, Instrumentation.Counter.LAYER_MISSES);
+		}
+		if (instrumentation.isRecorded(Instrumentation.Layer.WORLD_MAP))
+		{
+			addHitRate(Instrumentation.Layer.WORLD_MAP, "tiles", Instrumentation.Counter.TILE_HITS, Instrumentation.Counter.TILE_MISSES);
+		}
+
+		return super.render(graphics);
+	}
+
+	private void addCount(Instrumentation.Layer layer, Instrumentation.Counter counter)
+	{
+		panelComponent.getChildren().add(LineComponent.builder()
+			.left(layer.label(counter))
+			.right(Long.toString(instrumentation.getCount(layer, counter)))
+			.build());
+	}
+
+	private void addHitRate(Instrumentation.Layer layer, String name, Instrumentation.Counter hits, Instrumentation.Counter misses)
+	{
+		final int hitRate = instrumentation.getHitRate(layer, hits, misses);
+		panelComponent.getChildren().add(LineComponent.builder()
+			.left(layer.label(name))
+			.right(hitRate == -1 ? "-" : hitRate + "%")
+			.build());
+	}
+
+	private static String micros(long nanos)
+	{
+		return Long.toString(nanos / 1000);
+	}
+}
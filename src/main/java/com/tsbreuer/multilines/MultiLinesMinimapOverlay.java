@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.Ellipse2D;
+import javax.inject.Inject;
+import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.OverlayLayer;
+import net.runelite.client.ui.overlay.OverlayPosition;
+
+/**
+ * Draws the multi and spear lines of the scene onto the minimap.
+ */
+class MultiLinesMinimapOverlay extends Overlay
+{
+	private final MultiLinesPlugin plugin;
+	private final MultiLinesConfig config;
+	private final MinimapLineProjector projector;
+	private final LineRenderer spearRenderer;
+	private final LineRenderer multiRenderer;
+	private final CameraState camera = new CameraState();
+
+	@Inject
+	private MultiLinesMinimapOverlay(MultiLinesPlugin plugin, MultiLinesConfig config, MinimapLineProjector projector, Instrumentation instrumentation)
+	{
+		setPosition(OverlayPosition.DYNAMIC);
+		setLayer(OverlayLayer.ABOVE_WIDGETS);
+		this.plugin = plugin;
+		this.config = config;
+		this.projector = projector;
+		spearRenderer = new LineRenderer(instrumentation, Instrumentation.Layer.MINIMAP);
+		multiRenderer = new LineRenderer(instrumentation, Instrumentation.Layer.MINIMAP);
+	}
+
+	@Override
+	public Dimension render(Graphics2D graphics)
+	{
+		if (!config.showMinimapLines())
+		{
+			return null;
+		}
+
+		projector.captureCamera(camera);
+		if (!projector.isVisible())
+		{
+			return null;
+		}
+
+		final GeometrySnapshot snapshot = plugin.getSnapshot();
+		final Rectangle bounds = projector.getBounds();
+		final Shape clip = graphics.getClip();
+		graphics.clip(new Ellipse2D.Double(bounds.x, bounds.y, bounds.width, bounds.height));
+		if (config.showSpearLines())
+		{
+			spearRenderer.render(graphics, snapshot.getSpearLines(), projector, config.spearLinesColor());
+		}
+		multiRenderer.render(graphics, snapshot.getMultiLines(), projector, config.multiLinesColor());
+		graphics.setClip(clip);
+
+		return null;
+	}
+}
@@ -27,11 +27,6 @@
 package com.tsbreuer.multilines;
 
 import lombok.extern.slf4j.Slf4j;
-import net.runelite.api.Client;
-import net.runelite.api.Perspective;
-import net.runelite.api.Point;
-import net.runelite.api.coords.LocalPoint;
-import net.runelite.api.geometry.Geometry;
 import net.runelite.client.plugins.PluginDescriptor;
 import net.runelite.client.ui.overlay.Overlay;
 import net.runelite.client.ui.overlay.OverlayLayer;
@@ -39,10 +34,6 @@ import net.runelite.client.ui.overlay.OverlayPosition;
 
 import javax.inject.Inject;
 import java.awt.*;
-import java.awt.geom.AffineTransform;
-import java.awt.geom.GeneralPath;
-import java.awt.geom.Line2D;
-import java.awt.geom.PathIterator;
 
 @Slf4j
 @PluginDescriptor(
@@ -52,171 +43,84 @@ class MultiLinesOverlay extends Overlay
 {
 	private final MultiLinesPlugin plugin;
 	private final MultiLinesConfig config;
-	private final Client client;
+	private final LineProjector projector;
+	private final Instrumentation instrumentation;
+	private final LineRenderer spearRenderer;
+	private final LineRenderer multiRenderer;
+	private final FillRenderer spearFillRenderer;
+	private final FillRenderer multiFillRenderer;
+	private final LineLayerCache layerCache = new LineLayerCache();
+	private final CameraState camera = new CameraState();
 
 	@Inject
-	private MultiLinesOverlay(MultiLinesPlugin plugin, MultiLinesConfig config, Client client)
+	private MultiLinesOverlay(MultiLinesPlugin plugin, MultiLinesConfig config, ClientLineProjector projector, Instrumentation instrumentation)
 	{
 		setPosition(OverlayPosition.DYNAMIC);
 		setLayer(OverlayLayer.ABOVE_SCENE);
 		this.plugin = plugin;
 		this.config = config;
-		this.client = client;
+		this.projector = projector;
+		this.instrumentation = instrumentation;
+		spearRenderer = new LineRenderer(instrumentation, Instrumentation.Layer.SCENE);
+		multiRenderer = new LineRenderer(instrumentation, Instrumentation.Layer.SCENE);
+		spearFillRenderer = new FillRenderer(instrumentation, Instrumentation.Layer.SCENE);
+		multiFillRenderer = new FillRenderer(instrumentation, Instrumentation.Layer.SCENE);
 	}
 
 	@Override
 	public Dimension render(Graphics2D graphics)
 	{
-		if (config.showSpearLines())
+		final GeometrySnapshot snapshot = plugin.getSnapshot();
+		final Color multiColor = config.multiLinesColor();
+		final Color spearColor = config.showSpearLines() ? config.spearLinesColor() : null;
+		final Color multiFillColor = config.fillTiles() ? config.multiFillColor() : null;
+		final Color spearFillColor = config.fillTiles() && spearColor != null ? config.spearFillColor() : null;
+		if (!config.cacheLineImage())
 		{
-			renderPath(graphics, plugin.getSpearLinesToDisplay(), config.spearLinesColor());
+			layerCache.clear();
+			renderLayers(graphics, snapshot, multiColor, spearColor, multiFillColor, spearFillColor);
+			return null;
 		}
-		renderPath(graphics, plugin.getMultiLinesToDisplay(), config.multiLinesColor());
 
-		return null;
-	}
-
-	public double getSlope(Line2D line) {
-		return (
-				(line.getY2() - line.getY1()) / ((line.getX2() - line.getX1()))
-		);
-	}
-
-	public boolean areParallel(double slope1, double slope2, double marginOfError){
-		//if (Math.abs(slope1 - slope2) < marginOfError) {
-			//log.debug(slope1 + " " + slope2 + " " + marginOfError + " " + Math.abs(slope1 - slope2) * 100);
-		//}
-		return Math.abs(slope1 - slope2) < marginOfError;
-	}
-
-	public GeneralPath simplifyPath(PathIterator it)
-	{
-		GeneralPath newPath = new GeneralPath();
-		float[] coords = new float[2];
-		float[] startCoords = new float[2];
-		float[] currentCoords = new float[2];
-		Line2D prevLine = null;
-		//log.debug("Start of simplifyPath");
-		int iterations = 0;
-		int lastOperation = 0;
-		boolean	parallel = false;
-		while (!it.isDone())
+		projector.captureCamera(camera);
+		if (layerCache.isValid(snapshot, camera, multiColor, spearColor, multiFillColor, spearFillColor))
 		{
-			iterations++;
-			//log.debug(iterations);
-			int type = it.currentSegment(coords);
-			//log.debug("Type " + type);
-			if (type == PathIterator.SEG_MOVETO)
-			{
-				if (prevLine != null){
-					newPath.lineTo(currentCoords[0], currentCoords[1]);
-				}
-				startCoords[0] = coords[0];
-				startCoords[1] = coords[1];
-				//log.debug("Moved to " + startCoords[0] + " " + startCoords[1]);
-				newPath.moveTo(coords[0], coords[1]);
-				prevLine = null;
-			}
-			else if (type == PathIterator.SEG_LINETO)
+			instrumentation.count(Instrumentation.Layer.SCENE, Instrumentation.Counter.LAYER_HITS, 1);
+		}
+		else
+		{
+			instrumentation.count(Instrumentation.Layer.SCENE, Instrumentation.Counter.LAYER_MISSES, 1);
+			final Graphics2D layerGraphics = layerCache.redraw(graphics, snapshot, camera, multiColor, spearColor, multiFillColor, spearFillColor);
+			try
 			{
-				if (prevLine != null) {
-					Line2D currentLine = new Line2D.Float(currentCoords[0], currentCoords[1], coords[0], coords[1]);
-					if (areParallel(getSlope(currentLine),getSlope(prevLine), 0.1)) {
-						// We save coords of current pos and go next
-						currentCoords[0] = coords[0];
-						currentCoords[1] = coords[1];
-						parallel = true;
-						//log.debug("Parallel to " + currentCoords[0] + " " + currentCoords[1]);
-					}
-					else
-					{
-						//log.debug("line " + prevLine);
-						//log.debug("NewLineEnd: " + coords[0] + " " + coords[1]);
-						// No longer parallel so draw line up to current point
-						newPath.lineTo(currentCoords[0], currentCoords[1]);
-						parallel = false;
-						//log.debug("Drawed line "+ startCoords[0] + " " +  startCoords[1] + " " +  currentCoords[0] + " " + currentCoords[1]);
-						// Move start coordination to last point we drew to
-						startCoords[0] = currentCoords[0];
-						startCoords[1] = currentCoords[1];
-						// Move current coords to next target
-						currentCoords[0] = coords[0];
-						currentCoords[1] = coords[1];
-						prevLine = currentLine;
-						lastOperation = iterations; // Janky because we dont have hasNext() for PathIterator
-					}
-				}
-				else {
-					prevLine = new Line2D.Float(startCoords[0], startCoords[1], coords[0], coords[1]);
-					currentCoords[0] = coords[0];
-					currentCoords[1] = coords[1];
-					//log.debug("First Line, moved to " + currentCoords[0] + " " + currentCoords[1]);
-				}
+				renderLayers(layerGraphics, snapshot, multiColor, spearColor, multiFillColor, spearFillColor);
 			}
-			else if (type == PathIterator.SEG_CLOSE)
+			finally
 			{
-				if (prevLine != null) {
-					//log.debug(" Current coords " + currentCoords[0] + " " + currentCoords[1] + " new Coords: " + coords[0] + " " + coords[1]);
-					newPath.lineTo(coords[0], coords[1]);
-				}
-				else
-				{
-					log.debug("Error! Not sure how we got here");
-				}
-				newPath.closePath();
-			}
-			it.next();
-			if (it.isDone()){
-					//log.debug("End of iteration");
-					newPath.lineTo(coords[0], coords[1]);
+				layerGraphics.dispose();
 			}
 		}
-		//log.debug(iterations);
+		layerCache.draw(graphics);
 
-		return newPath;
+		return null;
 	}
 
-	public int getPathLength(PathIterator it){
-		int length = 0;
-		while (!it.isDone()){
-			length++;
-			it.next();
-		}
-		return length;
-	};
-
-	private void renderPath(Graphics2D graphics, GeneralPath path, Color color)
+	private void renderLayers(Graphics2D graphics, GeometrySnapshot snapshot, Color multiColor, Color spearColor, Color multiFillColor,
+		Color spearFillColor)
 	{
-		graphics.setColor(color);
-		graphics.setStroke(new BasicStroke(1));
-
-		// Filter out not from our same plane
-		path = Geometry.filterPath(path, (p1, p2) ->
-				Perspective.localToCanvas(client, new LocalPoint((int) p1[0], (int) p1[1]), client.getPlane()) != null &&
-						Perspective.localToCanvas(client, new LocalPoint((int) p2[0], (int) p2[1]), client.getPlane()) != null);
-
-
-		path = Geometry.transformPath(path, coords ->
+		// The fills are missing until the scene is built again after turning them on
+		if (spearFillColor != null && snapshot.getSpearFill() != null)
 		{
-			Point point = Perspective.localToCanvas(client, new LocalPoint((int) coords[0], (int) coords[1]), client.getPlane());
-			coords[0] = point.getX();
-			coords[1] = point.getY();
-		});
-
-		// Filter off screen
-		path = Geometry.filterPath(path, (p1, p2) ->
-				// p1 within canvas
-				(p1[0] > 0 && p1[0] < client.getCanvasWidth()) && (p1[1] > 0 && p1[1] < client.getCanvasHeight())
-				||
-				// p2 within canvas
-				(p2[0] > 0 && p2[0] < client.getCanvasWidth()) && (p2[1] > 0 && p2[1] < client.getCanvasHeight())
-
-		);
-		//int count = getPathLength(path.getPathIterator((new AffineTransform())));
-		// Reduce number of lines to draw
-		path = simplifyPath(path.getPathIterator((new AffineTransform())));
-		//log.debug("Saved: " + (count - getPathLength(path.getPathIterator((new AffineTransform())))) + " out of " + count);
-
-		graphics.draw(path);
+			spearFillRenderer.render(graphics, snapshot.getSpearFill(), projector, spearFillColor);
+		}
+		if (multiFillColor != null && snapshot.getMultiFill() != null)
+		{
+			multiFillRenderer.render(graphics, snapshot.getMultiFill(), projector, multiFillColor);
+		}
+		if (spearColor != null)
+		{
+			spearRenderer.render(graphics, snapshot.getSpearLines(), projector, spearColor);
+		}
+		multiRenderer.render(graphics, snapshot.getMultiLines(), projector, multiColor);
 	}
 }
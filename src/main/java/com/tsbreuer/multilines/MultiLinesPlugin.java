@@ -25,37 +25,47 @@
  */
 package com.tsbreuer.multilines;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.google.inject.Provides;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.*;
-import net.runelite.api.coords.LocalPoint;
+import net.runelite.api.coords.WorldPoint;
+import net.runelite.api.events.CommandExecuted;
 import net.runelite.api.events.GameStateChanged;
-import net.runelite.api.geometry.Geometry;
+import net.runelite.api.events.GameTick;
+import net.runelite.client.RuneLite;
 import net.runelite.client.callback.ClientThread;
 import net.runelite.client.config.ConfigManager;
+import net.runelite.client.eventbus.EventBus;
 import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.events.ConfigChanged;
+import net.runelite.client.events.PluginMessage;
+import net.runelite.client.game.SpriteManager;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
 import net.runelite.client.ui.overlay.OverlayManager;
+import net.runelite.client.ui.overlay.infobox.InfoBoxManager;
 
 import javax.inject.Inject;
 import java.awt.*;
-import java.awt.geom.Area;
-import java.awt.geom.GeneralPath;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
 import java.net.URI;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 
 @Slf4j
@@ -65,21 +75,74 @@ import java.util.concurrent.ScheduledExecutorService;
 	tags = {"dragon spear", "multicombat", "multi-combat", "multi", "dmm"}
 )
 public class MultiLinesPlugin extends Plugin {
-	private List<Rectangle> Multi_MULTI_AREAS = new ArrayList<Rectangle>();
-	private static final int SPEAR_RANGE = 4;
+	// How far from multi the infobox counts tiles
+	private static final int DISTANCE_LIMIT = 16;
+	// Enough for the up to nine regions of a handful of recently visited scenes
+	private static final int REGION_CACHE_SIZE = 64;
+	private static final String DATA_URL = "https://raw.githubusercontent.com/tsbreuer/Multi-Lines/geoJSON/src/main/java/com/tsbreuer/multilines/";
+	private static final String NORMAL_DATASET = "MultiLinesData.json";
+	private static final String DMM_DATASET = "MultiLinesDataDMM.json";
+	private static final List<String> DATASETS = List.of(NORMAL_DATASET, DMM_DATASET);
+	private static final File DATA_DIRECTORY = new File(RuneLite.RUNELITE_DIR, "multi-lines");
+	private static final String COMMAND = "multilines";
+	private static final DateTimeFormatter EXPORT_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
 	private int LoadedAreas = 0;
 
-	private Area MULTI_AREA = new Area();
-	private Area SPEAR_MULTI_AREA = new Area();
-	GeneralPath drawPathsNormal = new GeneralPath();
-	GeneralPath drawPathsSpear = new GeneralPath();
+	// Written by the loading and scene threads, read by the overlay. Both are immutable, so
+	// replacing the reference publishes a consistent state.
+	private volatile Dataset dataset = Dataset.EMPTY;
+	private volatile GeometrySnapshot snapshot = GeometrySnapshot.EMPTY;
+
+	// Every dataset loaded so far by name, so switching world types only has to pick another one
+	private final Map<String, Dataset> datasets = new ConcurrentHashMap<>();
+	private final Map<String, Long> appliedChecksums = new ConcurrentHashMap<>();
+	// Every load of a dataset goes through its task, so loading the local copy at start up and
+	// refreshing it after logging in are folded together instead of racing
+	private final Map<String, CoalescingTask> datasetLoads = new ConcurrentHashMap<>();
+	private final Set<String> datasetRefreshes = ConcurrentHashMap.newKeySet();
+	private volatile String activeDataset = NORMAL_DATASET;
+	// Counts the times the plugin was started, so loads and rebuilds queued before it was shut
+	// down are dropped instead of publishing their results
+	private volatile int session;
+	private CoalescingTask sceneRebuild;
+	private DatasetCache datasetCache;
+	private MultiAreaInfoBox infoBox;
+	// Only used on the client thread
+	private RegionLineCache multiRegionCache;
+	private RegionLineCache spearRegionCache;
+	private InstanceChunkMap instanceChunks;
+	private boolean sceneLoaded;
 
 	@Inject
 	private MultiLinesOverlay overlay;
 
+	@Inject
+	private MultiLinesMinimapOverlay minimapOverlay;
+
+	@Inject
+	private MultiLinesWorldMapOverlay worldMapOverlay;
+
+	@Inject
+	private MultiLinesDebugOverlay debugOverlay;
+
+	@Inject
+	private Instrumentation instrumentation;
+
 	@Inject
 	private OverlayManager overlayManager;
 
+	@Inject
+	private InfoBoxManager infoBoxManager;
+
+	@Inject
+	private SpriteManager spriteManager;
+
+	@Inject
+	private MultiAreaService areaService;
+
+	@Inject
+	private EventBus eventBus;
+
 	@Inject
 	private Client client;
 
@@ -104,18 +167,18 @@ public class MultiLinesPlugin extends Plugin {
 			log.debug("LOGGED IN");
 			if (LoadedAreas == 0) {
 				log.debug("Requested Multi Lines Load");
-				executor.execute(() -> {
-							UpdateMultiLines(Multi_MULTI_AREAS, client.getWorldType());
-						}
-				);
+				// Draw the dataset for this world type straight away if it was loaded before,
+				// then check for a newer one
+				final String name = getDatasetName(client.getWorldType());
+				activeDataset = name;
+				updateActiveDataset();
+				datasetRefreshes.add(name);
+				datasetLoads.get(name).request();
 				LoadedAreas = 1;
 			}
-			executor.execute(() ->
-					updateLinesToDisplayNormal(MULTI_AREA)
-			);
-			executor.execute(() ->
-					updateLinesToDisplaySpear(SPEAR_MULTI_AREA)
-			);
+			// The lines follow the terrain, which may differ even if the base didn't change
+			sceneLoaded = true;
+			sceneRebuild.request();
 		} else if (gameStateChanged.getGameState() == GameState.LOGIN_SCREEN || gameStateChanged.getGameState() == GameState.LOGGING_IN) {
 			LoadedAreas = 0;
 		} else if (gameStateChanged.getGameState() == GameState.HOPPING) {
@@ -123,159 +186,414 @@ public class MultiLinesPlugin extends Plugin {
 		}
 	}
 
+	@Subscribe
+	public void onGameTick(GameTick gameTick) {
+		final Player player = client.getLocalPlayer();
+		if (player == null) {
+			return;
+		}
+
+		// Going up or down stairs in an instance doesn't load a scene, but may change its templates
+		if (client.isInInstancedRegion() && client.getPlane() != snapshot.getPlane()) {
+			sceneRebuild.request();
+		}
+
+		final WorldPoint location = player.getWorldLocation();
+		infoBox.setDistance(snapshot.getDistanceField().getDistance(location.getX(), location.getY()));
+	}
+
+	@Subscribe
+	public void onConfigChanged(ConfigChanged configChanged) {
+		if (!configChanged.getGroup().equals("Multi-lines")) {
+			return;
+		}
+
+		if (configChanged.getKey().equals("instrumentation")) {
+			instrumentation.setEnabled(config.instrumentation());
+		} else if (configChanged.getKey().equals("fillTiles")) {
+			sceneRebuild.request();
+		} else if (configChanged.getKey().equals("spearRange")) {
+			// Grow the new reach off the client thread, the scene picks it up once it is ready
+			final Dataset current = dataset;
+			final List<Dataset> resident = new ArrayList<>(datasets.values());
+			final int spearRange = config.spearRange();
+			executor.execute(() -> {
+				current.getReach(spearRange);
+				sceneRebuild.request();
+				for (Dataset other : resident) {
+					other.getReach(spearRange);
+				}
+			});
+		}
+	}
+
+	@Subscribe
+	public void onPluginMessage(PluginMessage pluginMessage) {
+		// Plugins started after this one ask for the lookups again
+		if (pluginMessage.getNamespace().equals(MultiAreaService.NAMESPACE)
+				&& pluginMessage.getName().equals(MultiAreaService.REQUEST_MESSAGE)) {
+			postLookups();
+		}
+	}
+
+	@Subscribe
+	public void onCommandExecuted(CommandExecuted commandExecuted) {
+		if (!commandExecuted.getCommand().equalsIgnoreCase(COMMAND) || commandExecuted.getArguments().length == 0) {
+			return;
+		}
+
+		final String argument = commandExecuted.getArguments()[0];
+		if (argument.equalsIgnoreCase("export")) {
+			final File file = new File(DATA_DIRECTORY, "timings-" + LocalDateTime.now().format(EXPORT_TIME) + ".csv");
+			executor.execute(() -> exportInstrumentation(file));
+		} else if (argument.equalsIgnoreCase("reset")) {
+			instrumentation.reset();
+		}
+	}
+
 	@Override
 	public void startUp() {
+		final HttpClient httpClient = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.followRedirects(HttpClient.Redirect.NORMAL)
+				.connectTimeout(Duration.ofSeconds(20))
+				.build();
+		datasetCache = new DatasetCache(httpClient, DATA_DIRECTORY);
+		final int started = ++session;
+		for (String name : DATASETS) {
+			datasetLoads.put(name, new CoalescingTask(executor, () -> loadDataset(name, started)));
+		}
+		// Scene lines take well under a frame to build, and the client thread sees a consistent scene
+		sceneRebuild = new CoalescingTask(clientThread::invokeLater, () -> rebuildScene(started));
+		multiRegionCache = new RegionLineCache(REGION_CACHE_SIZE, instrumentation);
+		spearRegionCache = new RegionLineCache(REGION_CACHE_SIZE, instrumentation);
+		instrumentation.setEnabled(config.instrumentation());
 		overlayManager.add(overlay);
+		overlayManager.add(minimapOverlay);
+		overlayManager.add(worldMapOverlay);
+		overlayManager.add(debugOverlay);
+		infoBox = new MultiAreaInfoBox(this, config);
+		spriteManager.getSpriteAsync(SpriteID.MULTI_COMBAT_ZONE_CROSSED_SWORDS, 0, infoBox::setImage);
+		infoBoxManager.addInfoBox(infoBox);
+
+		// Have the lines of every world type from the last session, or the ones shipped with the
+		// plugin, ready before logging in
+		activeDataset = getDatasetName(client.getWorldType());
+		for (String name : DATASETS) {
+			datasetLoads.get(name).request();
+		}
 		config.setWarning("Warning, this plugin does not include Wilderness Multi Areas. Please use Wilderness Lines for that.");
+		postLookups();
 	}
 
 	@Override
 	public void shutDown() {
 		overlayManager.remove(overlay);
+		overlayManager.remove(minimapOverlay);
+		overlayManager.remove(worldMapOverlay);
+		overlayManager.remove(debugOverlay);
+		instrumentation.setEnabled(false);
+		infoBoxManager.removeInfoBox(infoBox);
+		synchronized (this) {
+			session++;
+			dataset = Dataset.EMPTY;
+			snapshot = GeometrySnapshot.EMPTY;
+			areaService.setDataset(Dataset.EMPTY);
+			datasets.clear();
+			appliedChecksums.clear();
+		}
+		datasetLoads.clear();
+		datasetRefreshes.clear();
+		LoadedAreas = 0;
+		sceneLoaded = false;
+		instanceChunks = null;
+		// The lookups answer false from here on, this tells other plugins to let go of them
+		eventBus.post(new PluginMessage(MultiAreaService.NAMESPACE, MultiAreaService.LOOKUPS_MESSAGE, Collections.emptyMap()));
 	}
 
-	public Runnable UpdateMultiLines(List<Rectangle> arrayListToUpdate, EnumSet<WorldType> worldType) {
-		// Lookup lastest data
-		String githubURL;
-		if (worldType.contains(WorldType.DEADMAN)){
-			githubURL = "https://raw.githubusercontent.com/tsbreuer/Multi-Lines/geoJSON/src/main/java/com/tsbreuer/multilines/MultiLinesDataDMM.json?_=" + System.currentTimeMillis();
+	/**
+	 * Hands the multi and spear range queries to other plugins, which can't inject the service.
+	 */
+	private void postLookups() {
+		eventBus.post(new PluginMessage(MultiAreaService.NAMESPACE, MultiAreaService.LOOKUPS_MESSAGE, areaService.getLookups()));
+	}
+
+	/**
+	 * Checks for a newer version of the dataset online if that was asked for since the last
+	 * load, or else loads the local copy if it isn't loaded yet.
+	 */
+	private void loadDataset(String dataset, int started) {
+		if (started != session) {
+			return;
 		}
-		else {
-			githubURL = "https://raw.githubusercontent.com/tsbreuer/Multi-Lines/geoJSON/src/main/java/com/tsbreuer/multilines/MultiLinesData.json?_=" + System.currentTimeMillis();
+
+		if (datasetRefreshes.remove(dataset)) {
+			UpdateMultiLines(dataset, started);
+		} else if (!datasets.containsKey(dataset)) {
+			loadLocalDataset(dataset, started);
 		}
+	}
 
+	public void UpdateMultiLines(String dataset, int started) {
+		// A dataset loaded earlier stays in use until a newer one arrives
+		boolean loaded = datasets.containsKey(dataset) || loadLocalDataset(dataset, started);
 
 		try {
-			HttpClient hClient = HttpClient.newBuilder()
-					.version(HttpClient.Version.HTTP_1_1)
-					.followRedirects(HttpClient.Redirect.NORMAL)
-					.connectTimeout(Duration.ofSeconds(20))
-					.build();
-
-			HttpRequest request = HttpRequest.newBuilder()
-					.uri(URI.create(githubURL))
-					.timeout(Duration.ofSeconds(15))
-					.GET()
-					.build();
-			HttpResponse<String> response = hClient.send(request, HttpResponse.BodyHandlers.ofString());
-			// Convert to a JSON object to print data
-			JsonParser jp = new JsonParser(); //from gson
-			JsonElement root = jp.parse(response.body()); //Convert response to a json element
-			//log.debug(githubURL);
-			//log.debug(root.toString()); // Debug connection info
-			JsonObject rootobj = root.getAsJsonObject();
-			JsonObject MultiLines = rootobj.get("MultiLines").getAsJsonObject(); // Main object
-			JsonArray MultiAreas = MultiLines.get("Areas").getAsJsonArray(); // Areas List
-			List<Rectangle> tempArray = new ArrayList<Rectangle>(); // Clean existing Areas
-			for (JsonElement obj : MultiAreas) { // Map through each area to add tiles
-				//log.debug("Area: " + obj.getAsJsonObject().get("Name").getAsString());
-				//log.debug("" + obj.getAsJsonObject().get("Enabled").getAsBoolean());
-				//log.debug("" + obj.getAsJsonObject().get("Disabled").getAsBoolean());
-				//log.debug("" + obj.getAsJsonObject().get("Wilderness").getAsBoolean());
-				if (obj.getAsJsonObject().get("Enabled").getAsBoolean() && !obj.getAsJsonObject().get("Removed").getAsBoolean() && !obj.getAsJsonObject().get("Wilderness").getAsBoolean()) {
-					JsonArray tiles = obj.getAsJsonObject().get("Tiles").getAsJsonArray();
-					for (JsonElement tile : tiles) { // Loop through each rectangle
-						JsonObject tileObject = tile.getAsJsonObject();
-						// Add each rectangle of tiles
-						tempArray.add(
-								new Rectangle(
-										tileObject.get("x").getAsInt(),
-										tileObject.get("y").getAsInt(),
-										tileObject.get("width").getAsInt(),
-										tileObject.get("height").getAsInt()
-								)
-						);
-					}
-				}
-			}
-			arrayListToUpdate.clear();
-			arrayListToUpdate.addAll(tempArray);
-			UpdateSpearRanges(); // Once we're done, update Spear Ranges
-			//log.debug("Multi Areas Updated");
-			if (config.showLoginMessage()){
-				clientThread.invokeLater(() -> {
-					if (worldType.contains(WorldType.DEADMAN)){
-						client.addChatMessage(ChatMessageType.GAMEMESSAGE, "MultiLines", "Multi Lines Loaded for DMM. If you see any areas incorrectly mapped, please let me know", null);
-						client.addChatMessage(ChatMessageType.GAMEMESSAGE, "MultiLines", "You can contact me on discord @hypex or make an issue on github. You can turn off this message on settings", null);
-					}
-					else {
-						client.addChatMessage(ChatMessageType.GAMEMESSAGE, "MultiLines", "Normal Multi Lines Loaded. You can turn off this message on settings.", null);
-					}
-				});
+			final long start = instrumentation.start();
+			final String latest = datasetCache.refresh(dataset, URI.create(DATA_URL + dataset), Duration.ofMinutes(config.dataRefreshInterval()));
+			instrumentation.record(Instrumentation.Stage.DOWNLOAD, start);
+			final Dataset resident = datasets.get(dataset);
+			final long checksum = appliedChecksums.getOrDefault(dataset, -1L);
+			if (latest != null && DatasetCache.checksum(latest) != checksum) {
+				loaded = applyDataset(dataset, latest, true, started) || loaded;
+			} else if (latest != null && resident != null) {
+				storeProcessedDataset(dataset, resident, checksum);
 			}
-		} catch (IOException | InterruptedException | IllegalStateException e) {
+		} catch (IOException e) {
+			log.debug("Unable to refresh {}", dataset, e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		if (started != session) {
+			return;
+		}
+
+		if (!loaded) {
 			clientThread.invokeLater(() -> {
 				client.addChatMessage(ChatMessageType.GAMEMESSAGE, "MultiLines", "Error Loading Multi Lines", null);
 			});
+		} else if (config.showLoginMessage()){
+			clientThread.invokeLater(() -> {
+				if (dataset.equals(DMM_DATASET)){
+					client.addChatMessage(ChatMessageType.GAMEMESSAGE, "MultiLines", "Multi Lines Loaded for DMM. If you see any areas incorrectly mapped, please let me know", null);
+					client.addChatMessage(ChatMessageType.GAMEMESSAGE, "MultiLines", "You can contact me on discord @hypex or make an issue on github. You can turn off this message on settings", null);
+				}
+				else {
+					client.addChatMessage(ChatMessageType.GAMEMESSAGE, "MultiLines", "Normal Multi Lines Loaded. You can turn off this message on settings.", null);
+				}
+			});
+		}
+	}
 
-			//log.debug("Error Loading Multi Tiles from Github");;
+	/**
+	 * Loads the copy of a dataset from the last session, or the one shipped with the plugin,
+	 * without going to the network.
+	 */
+	private boolean loadLocalDataset(String dataset, int started) {
+		if (loadProcessedDataset(dataset, started)) {
+			return true;
 		}
-		return null;
+
+		final String cached = datasetCache.getCached(dataset);
+		if (cached != null && applyDataset(dataset, cached, true, started)) {
+			return true;
+		}
+
+		final String bundled = readBundledDataset(dataset);
+		return bundled != null && applyDataset(dataset, bundled, false, started);
 	}
 
-	public void UpdateSpearRanges() {
-		SPEAR_MULTI_AREA = new Area();
-		MULTI_AREA = new Area();
-		for (final Rectangle multiArea : Multi_MULTI_AREAS) {
-			MULTI_AREA.add(new Area(multiArea));
-			for (int i = 0; i <= SPEAR_RANGE; i++) {
-				final Rectangle spearArea = new Rectangle(multiArea);
-				spearArea.grow(SPEAR_RANGE - i, i);
-				SPEAR_MULTI_AREA.add(new Area(spearArea));
+	private boolean loadProcessedDataset(String dataset, int started) {
+		final long checksum = datasetCache.getChecksum(dataset);
+		if (checksum == -1) {
+			return false;
+		}
+
+		try {
+			final long start = instrumentation.start();
+			final Dataset processed = DatasetCodec.read(getProcessedFile(dataset), checksum);
+			instrumentation.record(Instrumentation.Stage.READ_PROCESSED, start);
+			if (processed == null) {
+				return false;
 			}
+			// Only grows the reach if the range changed since it was stored
+			processed.getReach(config.spearRange());
+			addDataset(dataset, processed, checksum, started);
+			return true;
+		} catch (IOException e) {
+			log.debug("Unable to read processed {}", dataset, e);
+			return false;
 		}
 	}
 
-	private void transformWorldToLocal(float[] coords) {
-		final LocalPoint lp = LocalPoint.fromWorld(client, (int) coords[0], (int) coords[1]);
-		coords[0] = lp.getX() - Perspective.LOCAL_TILE_SIZE / 2f;
-		coords[1] = lp.getY() - Perspective.LOCAL_TILE_SIZE / 2f;
+	private static String getDatasetName(EnumSet<WorldType> worldType) {
+		return worldType.contains(WorldType.DEADMAN) ? DMM_DATASET : NORMAL_DATASET;
 	}
 
-	GeneralPath getMultiLinesToDisplay() {
-		return drawPathsNormal;
+	/**
+	 * @return the dataset shipped with this version of the plugin, or null if it has none
+	 */
+	private static String readBundledDataset(String dataset) {
+		try (InputStream in = MultiLinesPlugin.class.getResourceAsStream(dataset)) {
+			if (in == null) {
+				return null;
+			}
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			log.debug("Unable to read bundled {}", dataset, e);
+			return null;
+		}
 	}
 
-	GeneralPath getSpearLinesToDisplay() {
-		return drawPathsSpear;
+	private boolean applyDataset(String dataset, String json, boolean store, int started) {
+		final List<MultiArea> parsed;
+		final long start = instrumentation.start();
+		try {
+			parsed = Dataset.parseAreas(json);
+		} catch (RuntimeException e) {
+			// Besides bad json, a file missing fields or with fields of the wrong type fails in
+			// many ways, none of which should take the loading thread down
+			log.debug("Unable to parse multi lines", e);
+			return false;
+		}
+
+		final long normalizeStart = instrumentation.record(Instrumentation.Stage.PARSE, start);
+		final List<MultiArea> areas = RectangleNormalizer.normalize(parsed);
+		final int parsedCount = RectangleNormalizer.countRectangles(parsed);
+		final int normalizedCount = RectangleNormalizer.countRectangles(areas);
+		instrumentation.count(Instrumentation.Counter.RECTANGLES_REMOVED, parsedCount - normalizedCount);
+		log.debug("Normalized {} rectangles of {} into {}", parsedCount, dataset, normalizedCount);
+
+		final long areasStart = instrumentation.record(Instrumentation.Stage.NORMALIZE, normalizeStart);
+		// Only the areas which changed since the last version of this dataset are built again
+		final Dataset previous = datasets.getOrDefault(dataset, Dataset.EMPTY);
+		final Dataset processed = previous == Dataset.EMPTY ? Dataset.of(areas) : previous.update(areas);
+		processed.getReach(config.spearRange());
+		instrumentation.record(Instrumentation.Stage.AREAS, areasStart);
+		final long checksum = DatasetCache.checksum(json);
+		addDataset(dataset, processed, checksum, started);
+		//log.debug("Multi Areas Updated");
+
+		if (store) {
+			storeProcessedDataset(dataset, processed, checksum);
+		}
+		return true;
 	}
 
+	private void storeProcessedDataset(String dataset, Dataset processed, long checksum) {
+		try {
+			DatasetCodec.write(getProcessedFile(dataset), checksum, processed, config.spearRange());
+		} catch (IOException e) {
+			log.debug("Unable to store processed {}", dataset, e);
+		}
+	}
 
-	private void updateLinesToDisplayNormal(final Shape... shapes) {
-		final Rectangle sceneRect = new Rectangle(
-				client.getBaseX() + 1, client.getBaseY() + 1,
-				Constants.SCENE_SIZE - 2, Constants.SCENE_SIZE - 2);
+	/**
+	 * Makes a dataset available, unless the plugin was shut down since it started loading.
+	 */
+	private synchronized void addDataset(String name, Dataset processed, long checksum, int started) {
+		if (started != session) {
+			return;
+		}
 
+		datasets.put(name, processed);
+		appliedChecksums.put(name, checksum);
+		updateActiveDataset();
+	}
 
-		final GeneralPath paths = new GeneralPath();
-		for (final Shape shape : shapes) {
-			GeneralPath lines = new GeneralPath(shape);
-			lines = Geometry.clipPath(lines, sceneRect);
-			lines = Geometry.splitIntoSegments(lines, 1);
-			lines = Geometry.transformPath(lines, this::transformWorldToLocal);
-			paths.append(lines, false);
+	/**
+	 * Switches to the loaded dataset for the active world type, or to none if it isn't loaded
+	 * yet. Called by both the client and loading threads after changing either, so whichever
+	 * runs last sees both changes.
+	 */
+	private synchronized void updateActiveDataset() {
+		final Dataset active = datasets.getOrDefault(activeDataset, Dataset.EMPTY);
+		if (active != dataset) {
+			dataset = active;
+			areaService.setDataset(active);
+			sceneRebuild.request();
 		}
-		//log.debug("Updated Normal Paths");
-		drawPathsNormal = paths;
 	}
 
-	private void updateLinesToDisplaySpear(final Shape... shapes)
-	{
-		final Rectangle sceneRect = new Rectangle(
-				client.getBaseX() + 1, client.getBaseY() + 1,
-				Constants.SCENE_SIZE - 2, Constants.SCENE_SIZE - 2);
+	private void exportInstrumentation(File file) {
+		String message;
+		try {
+			Files.createDirectories(DATA_DIRECTORY.toPath());
+			try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+				instrumentation.export(writer);
+			}
+			message = "Multi Lines timings saved to " + file;
+		} catch (IOException e) {
+			log.warn("Unable to export timings to {}", file, e);
+			message = "Unable to save Multi Lines timings";
+		}
 
+		final String chatMessage = message;
+		clientThread.invokeLater(() -> client.addChatMessage(ChatMessageType.GAMEMESSAGE, "MultiLines", chatMessage, null));
+	}
 
-		final GeneralPath paths = new GeneralPath();
-		for (final Shape shape : shapes)
-		{
-			GeneralPath lines = new GeneralPath(shape);
-			lines = Geometry.clipPath(lines, sceneRect);
-			lines = Geometry.splitIntoSegments(lines, 1);
-			lines = Geometry.transformPath(lines, this::transformWorldToLocal);
-			paths.append(lines, false);
-		}
-		//log.debug("Updated Spear Paths");
-		drawPathsSpear = paths;
+	private Path getProcessedFile(String dataset) {
+		return new File(DATA_DIRECTORY, dataset + ".bin").toPath();
+	}
+
+	Dataset getDataset() {
+		return dataset;
+	}
+
+	GeometrySnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	private void rebuildScene(int started) {
+		if (started != session || client.getGameState() != GameState.LOGGED_IN) {
+			return;
+		}
+
+		final Dataset current = dataset;
+		final int spearRange = config.spearRange();
+		final int baseX = client.getBaseX();
+		final int baseY = client.getBaseY();
+		final boolean instanced = client.isInInstancedRegion();
+		final int plane = instanced ? client.getPlane() : GeometrySnapshot.NOT_INSTANCED;
+		final boolean filled = config.fillTiles();
+		if (!sceneLoaded && snapshot.isFor(current, spearRange, baseX, baseY, plane, filled)) {
+			return;
+		}
+
+		// Growing a reach for the whole world takes far longer than a frame, so the previous
+		// lines stay up until it has been grown off the client thread
+		final TileMask worldReach = instanced ? null : current.peekReach(spearRange);
+		if (!instanced && worldReach == null) {
+			executor.execute(() -> {
+				current.getReach(spearRange);
+				sceneRebuild.request();
+			});
+			return;
+		}
+
+		if (instanced && (sceneLoaded || instanceChunks == null || instanceChunks.getPlane() != plane)) {
+			instanceChunks = InstanceChunkMap.of(client.getInstanceTemplateChunks(), plane);
+		} else if (!instanced) {
+			instanceChunks = null;
+		}
+		sceneLoaded = false;
+
+		final int[][][] tileHeights = client.getTileHeights();
+		final byte[][][] tileSettings = client.getTileSettings();
+
+		final long start = instrumentation.start();
+		if (instanced) {
+			// The instance's own coordinates aren't in the dataset, so its tiles are looked up in
+			// their templates and the lines are built for this scene alone
+			final TileMask multiArea = instanceChunks.toSceneMask(current.getMultiArea(), baseX, baseY);
+			final TileMask reach = multiArea.dilate(spearRange);
+			snapshot = new GeometrySnapshot(current.getVersion(), spearRange, baseX, baseY, plane,
+					SceneLines.fromMask(multiArea, baseX, baseY, tileHeights, tileSettings),
+					SceneLines.fromMask(reach, baseX, baseY, tileHeights, tileSettings),
+					filled ? SceneFill.fromMask(multiArea, null, baseX, baseY, tileHeights, tileSettings) : null,
+					filled ? SceneFill.fromMask(reach, multiArea, baseX, baseY, tileHeights, tileSettings) : null,
+					DistanceField.of(multiArea, baseX, baseY, DISTANCE_LIMIT));
+		} else {
+			final TileMask multiArea = current.getMultiArea();
+			snapshot = new GeometrySnapshot(current.getVersion(), spearRange, baseX, baseY, plane,
+					SceneLines.fromDataset(current, 0, multiRegionCache, baseX, baseY, tileHeights, tileSettings),
+					SceneLines.fromDataset(current, spearRange, spearRegionCache, baseX, baseY, tileHeights, tileSettings),
+					filled ? SceneFill.fromMask(multiArea, null, baseX, baseY, tileHeights, tileSettings) : null,
+					filled ? SceneFill.fromMask(worldReach, multiArea, baseX, baseY, tileHeights, tileSettings) : null,
+					DistanceField.of(multiArea, baseX, baseY, DISTANCE_LIMIT));
+		}
+		instrumentation.record(Instrumentation.Stage.SCENE, start);
+		//log.debug("Updated Scene Paths");
 	}
 }
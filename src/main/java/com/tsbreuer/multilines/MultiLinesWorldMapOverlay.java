@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.image.BufferedImage;
+import javax.inject.Inject;
+import net.runelite.api.Client;
+import net.runelite.api.Point;
+import net.runelite.api.widgets.ComponentID;
+import net.runelite.api.widgets.InterfaceID;
+import net.runelite.api.widgets.Widget;
+import net.runelite.api.worldmap.WorldMap;
+import net.runelite.client.ui.overlay.Overlay;
+import net.runelite.client.ui.overlay.OverlayLayer;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.OverlayPriority;
+
+/**
+ * Draws the multi and spear lines of the whole dataset onto the world map, from tiles drawn
+ * ahead of time for each region and zoom level.
+ */
+class MultiLinesWorldMapOverlay extends Overlay
+{
+	private static final int REGION_SIZE = 64;
+	// The tiles in view take about a quarter of a byte per pixel of the map, so even a map
+	// filling an 8K screen takes under 12 MB, leaving room for a few more views
+	static final long TILE_CACHE_BYTES = 32L << 20;
+
+	private final MultiLinesPlugin plugin;
+	private final MultiLinesConfig config;
+	private final Client client;
+	private final Instrumentation instrumentation;
+	private final WorldMapTileCache tileCache;
+
+	@Inject
+	private MultiLinesWorldMapOverlay(MultiLinesPlugin plugin, MultiLinesConfig config, Client client, Instrumentation instrumentation)
+	{
+		setPosition(OverlayPosition.DYNAMIC);
+		setPriority(OverlayPriority.HIGHEST);
+		setLayer(OverlayLayer.MANUAL);
+		drawAfterInterface(InterfaceID.WORLD_MAP);
+		this.plugin = plugin;
+		this.config = config;
+		this.client = client;
+		this.instrumentation = instrumentation;
+		tileCache = new WorldMapTileCache(TILE_CACHE_BYTES, instrumentation);
+	}
+
+	@Override
+	public Dimension render(Graphics2D graphics)
+	{
+		if (!config.showWorldMapLines())
+		{
+			return null;
+		}
+
+		final Widget map = client.getWidget(ComponentID.WORLD_MAP_MAPVIEW);
+		final WorldMap worldMap = client.getWorldMap();
+		if (map == null || map.isHidden() || worldMap == null)
+		{
+			return null;
+		}
+
+		final Dataset dataset = plugin.getDataset();
+		final Color multiColor = config.multiLinesColor();
+		final Color spearColor = config.showSpearLines() ? config.spearLinesColor() : null;
+		final float zoom = worldMap.getWorldMapZoom();
+		final Point position = worldMap.getWorldMapPosition();
+		final Rectangle bounds = map.getBounds();
+
+		// The same layout as the world map uses for its own markers
+		final int widthInTiles = (int) Math.ceil(bounds.width / zoom);
+		final int heightInTiles = (int) Math.ceil(bounds.height / zoom);
+		final int westX = position.getX() - widthInTiles / 2;
+		final int southY = position.getY() - heightInTiles / 2;
+
+		final long start = instrumentation.start();
+		final Shape clip = graphics.getClip();
+		graphics.clip(bounds);
+		for (int regionX = westX / REGION_SIZE; regionX <= (westX + widthInTiles) / REGION_SIZE; regionX++)
+		{
+			for (int regionY = southY / REGION_SIZE; regionY <= (southY + heightInTiles) / REGION_SIZE; regionY++)
+			{
+				final BufferedImage tile = tileCache.get(dataset, config.spearRange(), zoom, regionX, regionY, multiColor, spearColor);
+				if (tile == null)
+				{
+					continue;
+				}
+
+				final int x = bounds.x + Math.round((regionX * REGION_SIZE - westX) * zoom);
+				final int y = bounds.y + bounds.height - Math.round(((regionY + 1) * REGION_SIZE - southY) * zoom);
+				graphics.drawImage(tile, x, y, null);
+			}
+		}
+		graphics.setClip(clip);
+		instrumentation.record(Instrumentation.Layer.WORLD_MAP, Instrumentation.Stage.DRAW, start);
+
+		return null;
+	}
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reduces hand mapped rectangles to fewer rectangles covering the same tiles. Duplicates and
+ * rectangles inside another one are dropped, then the union is covered again with maximal
+ * rectangles, which is kept if it takes fewer rectangles than were left.
+ * <p>
+ * The areas of a dataset are normalized on their own, so an update to one area never depends
+ * on another, while the masks are built from all their rectangles normalized together, where
+ * areas overlap or meet.
+ */
+final class RectangleNormalizer
+{
+	private RectangleNormalizer()
+	{
+	}
+
+	/**
+	 * @return the areas with the same names and tiles, each with at most as many rectangles
+	 */
+	static List<MultiArea> normalize(List<MultiArea> areas)
+	{
+		final List<MultiArea> normalized = new ArrayList<>(areas.size());
+		for (MultiArea area : areas)
+		{
+			normalized.add(new MultiArea(area.getName(), normalizeRectangles(area.getRectangles())));
+		}
+		return normalized;
+	}
+
+	static int countRectangles(List<MultiArea> areas)
+	{
+		int count = 0;
+		for (MultiArea area : areas)
+		{
+			count += area.getRectangles().size();
+		}
+		return count;
+	}
+
+	/**
+	 * @return rectangles covering the same tiles, at most as many
+	 */
+	static List<Rectangle> normalizeRectangles(List<Rectangle> rectangles)
+	{
+		final List<Rectangle> result = new ArrayList<>();
+		for (List<Rectangle> group : groupTouching(rectangles))
+		{
+			final List<Rectangle> kept = removeContained(group);
+			final List<Rectangle> covered = kept.size() == 1 ? kept : cover(kept);
+			result.addAll(covered.size() < kept.size() ? covered : kept);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the rectangles which aren't empty, a duplicate or inside another one, in their
+	 * original order
+	 */
+	private static List<Rectangle> removeContained(List<Rectangle> rectangles)
+	{
+		final List<Rectangle> bySize = new ArrayList<>(new HashSet<>(rectangles));
+		bySize.removeIf(Rectangle::isEmpty);
+		// Largest first, so a rectangle can only be inside one checked before it
+		bySize.sort(Comparator.comparingLong((Rectangle r) -> (long) r.width * r.height).reversed());
+
+		final Set<Rectangle> contained = new HashSet<>();
+		for (int i = 0; i < bySize.size(); i++)
+		{
+			final Rectangle rectangle = bySize.get(i);
+			for (int j = 0; j < i; j++)
+			{
+				final Rectangle other = bySize.get(j);
+				if (!contained.contains(other) && other.contains(rectangle))
+				{
+					contained.add(rectangle);
+					break;
+				}
+			}
+		}
+
+		final List<Rectangle> kept = new ArrayList<>(bySize.size() - contained.size());
+		final Set<Rectangle> added = new HashSet<>();
+		for (Rectangle rectangle : rectangles)
+		{
+			if (!rectangle.isEmpty() && !contained.contains(rectangle) && added.add(rectangle))
+			{
+				kept.add(rectangle);
+			}
+		}
+		return kept;
+	}
+
+	/**
+	 * @return the rectangles which aren't empty, split into groups which overlap or share an edge
+	 * with no rectangle of another group, so each can be covered on its own
+	 */
+	private static List<List<Rectangle>> groupTouching(List<Rectangle> rectangles)
+	{
+		final Rectangle[] byX = rectangles.stream().filter(r -> !r.isEmpty()).toArray(Rectangle[]::new);
+		Arrays.sort(byX, Comparator.comparingInt((Rectangle r) -> r.x));
+		final int[] parent = new int[byX.length];
+		for (int i = 0; i < parent.length; i++)
+		{
+			parent[i] = i;
+		}
+
+		for (int i = 0; i < byX.length; i++)
+		{
+			final Rectangle rectangle = byX[i];
+			for (int j = i + 1; j < byX.length && byX[j].x <= rectangle.x + rectangle.width; j++)
+			{
+				final Rectangle other = byX[j];
+				if (other.y <= rectangle.y + rectangle.height && rectangle.y <= other.y + other.height)
+				{
+					parent[root(parent, j)] = root(parent, i);
+				}
+			}
+		}
+
+		final Map<Integer, List<Rectangle>> groups = new LinkedHashMap<>();
+		for (int i = 0; i < byX.length; i++)
+		{
+			groups.computeIfAbsent(root(parent, i), k -> new ArrayList<>()).add(byX[i]);
+		}
+		return new ArrayList<>(groups.values());
+	}
+
+	private static int root(int[] parent, int i)
+	{
+		while (parent[i] != i)
+		{
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+
+	/**
+	 * Covers the union of the rectangles with maximal rectangles, which may overlap. Takes the
+	 * first cell of the union which isn't covered yet, grows it into a maximal
+	 * rectangle first sideways and then up and down, or the other way around, keeps whichever
+	 * covers more new cells, and repeats. Works on the grid of rectangle edges rather than
+	 * tiles, so the cost doesn't depend on how large the rectangles are. Not always the fewest
+	 * rectangles, which would take far longer to find, but a plus or an L takes two.
+	 */
+	private static List<Rectangle> cover(List<Rectangle> rectangles)
+	{
+		final int[] xs = edges(rectangles, true);
+		final int[] ys = edges(rectangles, false);
+		final int columns = xs.length - 1;
+		final int rows = ys.length - 1;
+		final boolean[][] inside = new boolean[rows][columns];
+		for (Rectangle rectangle : rectangles)
+		{
+			final int minColumn = Arrays.binarySearch(xs, rectangle.x);
+			final int maxColumn = Arrays.binarySearch(xs, rectangle.x + rectangle.width);
+			final int minRow = Arrays.binarySearch(ys, rectangle.y);
+			final int maxRow = Arrays.binarySearch(ys, rectangle.y + rectangle.height);
+			for (int row = minRow; row < maxRow; row++)
+			{
+				Arrays.fill(inside[row], minColumn, maxColumn, true);
+			}
+		}
+
+		final List<Rectangle> result = new ArrayList<>();
+		final boolean[][] covered = new boolean[rows][columns];
+		final int[] wide = new int[4];
+		final int[] tall = new int[4];
+		for (int row = 0; row < rows; row++)
+		{
+			for (int column = 0; column < columns; column++)
+			{
+				if (!inside[row][column] || covered[row][column])
+				{
+					continue;
+				}
+
+				grow(inside, row, column, true, wide);
+				grow(inside, row, column, false, tall);
+				final int[] cells = countNew(covered, wide) >= countNew(covered, tall) ? wide : tall;
+				for (int r = cells[0]; r < cells[1]; r++)
+				{
+					Arrays.fill(covered[r], cells[2], cells[3], true);
+				}
+				result.add(new Rectangle(xs[cells[2]], ys[cells[0]], xs[cells[3]] - xs[cells[2]], ys[cells[1]] - ys[cells[0]]));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Grows a cell into a maximal rectangle of the union, as its rows {@code [0, 1)} and
+	 * columns {@code [2, 3)}.
+	 *
+	 * @param sideways whether to grow along the cell's row first, rather than its column
+	 */
+	private static void grow(boolean[][] inside, int row, int column, boolean sideways, int[] cells)
+	{
+		int minRow = row;
+		int maxRow = row + 1;
+		int minColumn = column;
+		int maxColumn = column + 1;
+		if (sideways)
+		{
+			while (minColumn > 0 && inside[row][minColumn - 1])
+			{
+				minColumn--;
+			}
+			while (maxColumn < inside[row].length && inside[row][maxColumn])
+			{
+				maxColumn++;
+			}
+			while (minRow > 0 && isRowInside(inside[minRow - 1], minColumn, maxColumn))
+			{
+				minRow--;
+			}
+			while (maxRow < inside.length && isRowInside(inside[maxRow], minColumn, maxColumn))
+			{
+				maxRow++;
+			}
+		}
+		else
+		{
+			while (minRow > 0 && inside[minRow - 1][column])
+			{
+				minRow--;
+			}
+			while (maxRow < inside.length && inside[maxRow][column])
+			{
+				maxRow++;
+			}
+			while (minColumn > 0 && isColumnInside(inside, minColumn - 1, minRow, maxRow))
+			{
+				minColumn--;
+			}
+			while (maxColumn < inside[row].length && isColumnInside(inside, maxColumn, minRow, maxRow))
+			{
+				maxColumn++;
+			}
+		}
+		cells[0] = minRow;
+		cells[1] = maxRow;
+		cells[2] = minColumn;
+		cells[3] = maxColumn;
+	}
+
+	private static boolean isRowInside(boolean[] row, int minColumn, int maxColumn)
+	{
+		for (int column = minColumn; column < maxColumn; column++)
+		{
+			if (!row[column])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isColumnInside(boolean[][] inside, int column, int minRow, int maxRow)
+	{
+		for (int row = minRow; row < maxRow; row++)
+		{
+			if (!inside[row][column])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int countNew(boolean[][] covered, int[] cells)
+	{
+		int count = 0;
+		for (int row = cells[0]; row < cells[1]; row++)
+		{
+			for (int column = cells[2]; column < cells[3]; column++)
+			{
+				if (!covered[row][column])
+				{
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	private static int[] edges(List<Rectangle> rectangles, boolean horizontal)
+	{
+		final int[] edges = new int[rectangles.size() * 2];
+		int i = 0;
+		for (Rectangle rectangle : rectangles)
+		{
+			edges[i++] = horizontal ? rectangle.x : rectangle.y;
+			edges[i++] = horizontal ? rectangle.x + rectangle.width : rectangle.y + rectangle.height;
+		}
+		Arrays.sort(edges);
+
+		int length = 0;
+		for (int edge : edges)
+		{
+			if (length == 0 || edges[length - 1] != edge)
+			{
+				edges[length++] = edge;
+			}
+		}
+		return Arrays.copyOf(edges, length);
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of region outlines in world coordinates, keyed by reach, region id
+ * and the version in which the tiles around the region last changed. Moving back to a recently
+ * visited area only has to translate its outlines to the new scene instead of tracing them
+ * again, and so does a dataset update which left the area alone.
+ */
+final class RegionLineCache
+{
+	private static final int REGION_BITS = 16;
+	private static final int REACH_BITS = 8;
+
+	private final Instrumentation instrumentation;
+	private final Map<Long, int[]> outlines;
+
+	RegionLineCache(int capacity, Instrumentation instrumentation)
+	{
+		this.instrumentation = instrumentation;
+		outlines = new LinkedHashMap<Long, int[]>(capacity, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest)
+			{
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * @return the outline of a region of the tiles within reach of the dataset's multi areas,
+	 * see {@link Dataset#getReach} and {@link TileMask#outline(int, int)}. On the client thread
+	 * the reach must already be grown, see {@link Dataset#peekReach}, or this waits for it.
+	 */
+	int[] get(Dataset dataset, int reach, int regionX, int regionY)
+	{
+		// The outline depends on the regions south and west of the region, and a reach on the
+		// regions as far around those as it spills
+		final long version = dataset.getRegionVersion(regionX, regionY, 1 + TileMask.regionsWithin(reach));
+		final long key = (version << REACH_BITS | reach) << REGION_BITS | TileMask.regionId(regionX, regionY);
+		int[] outline = outlines.get(key);
+		if (outline == null)
+		{
+			outline = dataset.getReach(reach).outline(regionX, regionY);
+			outlines.put(key, outline);
+			instrumentation.count(Instrumentation.Counter.REGION_MISSES, 1);
+		}
+		else
+		{
+			instrumentation.count(Instrumentation.Counter.REGION_HITS, 1);
+		}
+		return outline;
+	}
+}
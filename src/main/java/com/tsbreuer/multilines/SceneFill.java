@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.util.Arrays;
+import net.runelite.api.Constants;
+import net.runelite.api.Perspective;
+
+/**
+ * The tiles of a mask inside a single scene, merged into spans along each row so they can be
+ * filled with one polygon per span instead of one per tile. Spans are stored as the four
+ * corners of a quad in local coordinates, sorted by chunk like {@link SceneLines}.
+ * <p>
+ * A span never crosses a chunk edge, and ends wherever the slope of the ground along either of
+ * its long sides changes, so its quad lies on the ground just like the tiles it replaces.
+ */
+final class SceneFill
+{
+	static final int CORNERS = 4;
+
+	static final SceneFill EMPTY = new SceneFill(new int[0], new int[0], new int[SceneLines.CHUNK_COUNT + 1],
+		new int[SceneLines.CHUNK_COUNT], new int[SceneLines.CHUNK_COUNT]);
+
+	private final int[] localX;
+	private final int[] localY;
+	private final int[] chunkStarts;
+	private final int[] chunkMinHeights;
+	private final int[] chunkMaxHeights;
+
+	private SceneFill(int[] localX, int[] localY, int[] chunkStarts, int[] chunkMinHeights, int[] chunkMaxHeights)
+	{
+		this.localX = localX;
+		this.localY = localY;
+		this.chunkStarts = chunkStarts;
+		this.chunkMinHeights = chunkMinHeights;
+		this.chunkMaxHeights = chunkMaxHeights;
+	}
+
+	/**
+	 * Collects the tiles of the mask inside the scene with the given base, which are not in
+	 * {@code excluded}.
+	 *
+	 * @param excluded tiles to leave out, such as the multi area when filling its reach, or null
+	 * @param tileHeights the corner heights of the scene, or null to treat it as flat
+	 * @param tileSettings the tile settings of the scene, needed along with the heights
+	 */
+	static SceneFill fromMask(TileMask mask, TileMask excluded, int baseX, int baseY, int[][][] tileHeights, byte[][][] tileSettings)
+	{
+		// Tiles between corners 1 and SCENE_SIZE - 2, the corners lines can be drawn on
+		final int min = 1;
+		final int max = Constants.SCENE_SIZE - 3;
+
+		int[] xs = new int[256];
+		int[] ys = new int[256];
+		int corners = 0;
+		final int[] chunkStarts = new int[SceneLines.CHUNK_COUNT + 1];
+		final int[] minHeights = new int[SceneLines.CHUNK_COUNT];
+		final int[] maxHeights = new int[SceneLines.CHUNK_COUNT];
+		for (int chunk = 0; chunk < SceneLines.CHUNK_COUNT; chunk++)
+		{
+			chunkStarts[chunk] = corners / CORNERS;
+			final int chunkX = chunk / SceneLines.CHUNKS_PER_AXIS * SceneLines.CHUNK_SIZE;
+			final int chunkY = chunk % SceneLines.CHUNKS_PER_AXIS * SceneLines.CHUNK_SIZE;
+			final int startX = Math.max(chunkX, min);
+			final int endX = Math.min(chunkX + SceneLines.CHUNK_SIZE - 1, max);
+			for (int y = Math.max(chunkY, min); y <= Math.min(chunkY + SceneLines.CHUNK_SIZE - 1, max); y++)
+			{
+				for (int x = startX; x <= endX; )
+				{
+					if (!isFilled(mask, excluded, baseX + x, baseY + y))
+					{
+						x++;
+						continue;
+					}
+
+					int end = x + 1;
+					while (end <= endX && isFilled(mask, excluded, baseX + end, baseY + y))
+					{
+						end++;
+					}
+
+					// The span's south and north sides must both stay on the ground
+					while (x < end)
+					{
+						final int length = Math.min(
+							SceneLines.straightLength(tileHeights, tileSettings, x, y, 1, 0, end - x),
+							SceneLines.straightLength(tileHeights, tileSettings, x, y + 1, 1, 0, end - x));
+						if (corners + CORNERS > xs.length)
+						{
+							xs = Arrays.copyOf(xs, xs.length * 2);
+							ys = Arrays.copyOf(ys, ys.length * 2);
+						}
+						corners = addCorner(xs, ys, corners, x, y);
+						corners = addCorner(xs, ys, corners, x + length, y);
+						corners = addCorner(xs, ys, corners, x + length, y + 1);
+						corners = addCorner(xs, ys, corners, x, y + 1);
+						x += length;
+					}
+				}
+			}
+
+			if (tileHeights != null && chunkStarts[chunk] != corners / CORNERS)
+			{
+				SceneLines.findHeightRange(tileHeights, chunk, minHeights, maxHeights);
+			}
+		}
+		chunkStarts[SceneLines.CHUNK_COUNT] = corners / CORNERS;
+		return new SceneFill(Arrays.copyOf(xs, corners), Arrays.copyOf(ys, corners), chunkStarts, minHeights, maxHeights);
+	}
+
+	private static boolean isFilled(TileMask mask, TileMask excluded, int x, int y)
+	{
+		return mask.contains(x, y) && (excluded == null || !excluded.contains(x, y));
+	}
+
+	private static int addCorner(int[] xs, int[] ys, int corners, int sceneX, int sceneY)
+	{
+		xs[corners] = sceneX << Perspective.LOCAL_COORD_BITS;
+		ys[corners] = sceneY << Perspective.LOCAL_COORD_BITS;
+		return corners + 1;
+	}
+
+	int getSpanCount()
+	{
+		return localX.length / CORNERS;
+	}
+
+	/**
+	 * @return index of the first span of the chunk; the chunk ends where the next one starts
+	 */
+	int getChunkStart(int chunk)
+	{
+		return chunkStarts[chunk];
+	}
+
+	int getChunkMinHeight(int chunk)
+	{
+		return chunkMinHeights[chunk];
+	}
+
+	int getChunkMaxHeight(int chunk)
+	{
+		return chunkMaxHeights[chunk];
+	}
+
+	/**
+	 * @return local x of the corners, {@link #CORNERS} per span going round its quad
+	 */
+	int[] getLocalX()
+	{
+		return localX;
+	}
+
+	int[] getLocalY()
+	{
+		return localY;
+	}
+}
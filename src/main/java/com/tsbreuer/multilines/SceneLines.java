@@ -0,0 +1,417 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.util.Arrays;
+import net.runelite.api.Constants;
+import net.runelite.api.Perspective;
+
+/**
+ * Lines of a single scene stored as polylines of local coordinates in flat arrays, so
+ * the overlay can project and draw them every frame without allocating.
+ * <p>
+ * Every polyline lies within one chunk of {@link #CHUNK_SIZE} by {@link #CHUNK_SIZE} tiles,
+ * and polylines are sorted by chunk, so the overlay can skip all lines of a chunk which is out
+ * of view at once. Each chunk also knows the range of ground heights under it.
+ */
+final class SceneLines
+{
+	static final int CHUNK_SIZE = 8;
+	static final int CHUNKS_PER_AXIS = Constants.SCENE_SIZE / CHUNK_SIZE;
+	static final int CHUNK_COUNT = CHUNKS_PER_AXIS * CHUNKS_PER_AXIS;
+	private static final int CHUNK_SHIFT = 3;
+
+	static final SceneLines EMPTY = new SceneLines(new int[0], new int[0], new int[]{0}, 0,
+		new int[CHUNK_COUNT + 1], new int[CHUNK_COUNT], new int[CHUNK_COUNT]);
+
+	private static final int REGION_SHIFT = 6;
+
+	private final int[] localX;
+	private final int[] localY;
+	private final int[] polylineStarts;
+	private final int polylineCount;
+	private final int[] chunkStarts;
+	private final int[] chunkMinHeights;
+	private final int[] chunkMaxHeights;
+
+	private SceneLines(int[] localX, int[] localY, int[] polylineStarts, int polylineCount,
+		int[] chunkStarts, int[] chunkMinHeights, int[] chunkMaxHeights)
+	{
+		this.localX = localX;
+		this.localY = localY;
+		this.polylineStarts = polylineStarts;
+		this.polylineCount = polylineCount;
+		this.chunkStarts = chunkStarts;
+		this.chunkMinHeights = chunkMinHeights;
+		this.chunkMaxHeights = chunkMaxHeights;
+	}
+
+	/**
+	 * Assembles the outline of the tiles within reach of the multi areas inside the scene with
+	 * the given base from the cached outlines of the regions under it. The outline is split
+	 * wherever the slope of the ground under it changes on any plane, so the lines follow the
+	 * terrain whichever plane is shown.
+	 *
+	 * @param reach the range the multi areas are grown by, or 0 for the areas themselves, see
+	 * {@link Dataset#getReach}
+	 * @param tileHeights the corner heights of the scene, or null to treat it as flat
+	 * @param tileSettings the tile settings of the scene, needed along with the heights
+	 */
+	static SceneLines fromDataset(Dataset dataset, int reach, RegionLineCache cache, int baseX, int baseY,
+		int[][][] tileHeights, byte[][][] tileSettings)
+	{
+		return build((regionX, regionY) -> cache.get(dataset, reach, regionX, regionY), baseX, baseY, tileHeights, tileSettings);
+	}
+
+	/**
+	 * Assembles the outline of a mask inside the scene with the given base, outlining its
+	 * regions on the spot. Meant for masks which only cover one scene.
+	 *
+	 * @see #fromDataset
+	 */
+	static SceneLines fromMask(TileMask mask, int baseX, int baseY, int[][][] tileHeights, byte[][][] tileSettings)
+	{
+		return build(mask::outline, baseX, baseY, tileHeights, tileSettings);
+	}
+
+	private static SceneLines build(RegionOutlines outlines, int baseX, int baseY, int[][][] tileHeights, byte[][][] tileSettings)
+	{
+		// Lines run along tile corners 1 to SCENE_SIZE - 2, as corners on the scene edge can't be drawn
+		final int min = 1;
+		final int max = Constants.SCENE_SIZE - 2;
+		final Builder builder = new Builder();
+
+		for (int regionX = (baseX + min) >> REGION_SHIFT; regionX <= (baseX + max) >> REGION_SHIFT; regionX++)
+		{
+			for (int regionY = (baseY + min) >> REGION_SHIFT; regionY <= (baseY + max) >> REGION_SHIFT; regionY++)
+			{
+				final int[] runs = outlines.get(regionX, regionY);
+				for (int i = 0; i < runs.length; i += 4)
+				{
+					final int x1 = runs[i] - baseX;
+					final int y1 = runs[i + 1] - baseY;
+					final int x2 = runs[i + 2] - baseX;
+					final int y2 = runs[i + 3] - baseY;
+
+					if (y1 == y2)
+					{
+						if (y1 < min || y1 > max)
+						{
+							continue;
+						}
+						final int end = Math.min(x2, max);
+						for (int x = Math.max(x1, min); x < end; )
+						{
+							final int length = straightLength(tileHeights, tileSettings, x, y1, 1, 0, Math.min(end, nextChunk(x)) - x);
+							builder.lineTo(x, y1, x + length, y1);
+							x += length;
+						}
+					}
+					else
+					{
+						if (x1 < min || x1 > max)
+						{
+							continue;
+						}
+						final int end = Math.min(y2, max);
+						for (int y = Math.max(y1, min); y < end; )
+						{
+							final int length = straightLength(tileHeights, tileSettings, x1, y, 0, 1, Math.min(end, nextChunk(y)) - y);
+							builder.lineTo(x1, y, x1, y + length);
+							y += length;
+						}
+					}
+					builder.endPolyline();
+				}
+			}
+		}
+
+		return builder.build(tileHeights);
+	}
+
+	private interface RegionOutlines
+	{
+		/**
+		 * @return the outline runs of a region, see {@link TileMask#outline(int, int)}
+		 */
+		int[] get(int regionX, int regionY);
+	}
+
+	/**
+	 * @return the first chunk edge after the coordinate, which a segment from it must not pass.
+	 * This also keeps segments short on flat ground: one with an end behind the camera can't be
+	 * drawn, so at most a chunk of a line goes missing right next to it.
+	 */
+	private static int nextChunk(int sceneCoordinate)
+	{
+		return ((sceneCoordinate >> CHUNK_SHIFT) + 1) << CHUNK_SHIFT;
+	}
+
+	/**
+	 * Finds how far a line can go from a corner in a direction and still lie on the ground: as
+	 * long as the height changes by the same amount at every tile, on every plane.
+	 *
+	 * @return the number of tiles, between 1 and {@code maxLength}
+	 */
+	static int straightLength(int[][][] tileHeights, byte[][][] tileSettings, int x, int y, int dx, int dy, int maxLength)
+	{
+		if (tileHeights == null)
+		{
+			return maxLength;
+		}
+
+		int length = maxLength;
+		for (int plane = 0; plane < Constants.MAX_Z; plane++)
+		{
+			final int step = height(tileHeights, tileSettings, plane, x + dx, y + dy) - height(tileHeights, tileSettings, plane, x, y);
+			for (int i = 2; i <= length; i++)
+			{
+				final int rise = height(tileHeights, tileSettings, plane, x + i * dx, y + i * dy)
+					- height(tileHeights, tileSettings, plane, x + (i - 1) * dx, y + (i - 1) * dy);
+				if (rise != step)
+				{
+					length = i - 1;
+					break;
+				}
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * @return the height of a corner as {@link ClientLineProjector} sees it on the given plane
+	 */
+	private static int height(int[][][] tileHeights, byte[][][] tileSettings, int plane, int x, int y)
+	{
+		int z = plane;
+		if (z < 3 && (tileSettings[1][x][y] & ClientLineProjector.TILE_FLAG_BRIDGE) == ClientLineProjector.TILE_FLAG_BRIDGE)
+		{
+			z++;
+		}
+		return tileHeights[z][x][y];
+	}
+
+	/**
+	 * Finds the lowest and highest corner of a chunk, on any plane.
+	 */
+	static void findHeightRange(int[][][] tileHeights, int chunk, int[] minHeights, int[] maxHeights)
+	{
+		final int startX = chunk / CHUNKS_PER_AXIS << CHUNK_SHIFT;
+		final int startY = chunk % CHUNKS_PER_AXIS << CHUNK_SHIFT;
+		final int endX = Math.min(startX + CHUNK_SIZE, Constants.SCENE_SIZE - 1);
+		final int endY = Math.min(startY + CHUNK_SIZE, Constants.SCENE_SIZE - 1);
+		int min = Integer.MAX_VALUE;
+		int max = Integer.MIN_VALUE;
+		for (int z = 0; z < Constants.MAX_Z; z++)
+		{
+			for (int x = startX; x <= endX; x++)
+			{
+				for (int y = startY; y <= endY; y++)
+				{
+					min = Math.min(min, tileHeights[z][x][y]);
+					max = Math.max(max, tileHeights[z][x][y]);
+				}
+			}
+		}
+		minHeights[chunk] = min;
+		maxHeights[chunk] = max;
+	}
+
+	/**
+	 * Collects polylines of scene tile corners and converts them to local coordinates.
+	 */
+	private static final class Builder
+	{
+		private int[] xs = new int[256];
+		private int[] ys = new int[256];
+		private int[] starts = new int[64];
+		private int[] chunks = new int[64];
+		private int vertices;
+		private int polylines;
+
+		/**
+		 * Adds a segment within one chunk, continuing the current polyline if it is in the
+		 * same chunk.
+		 */
+		void lineTo(int fromX, int fromY, int toX, int toY)
+		{
+			final int chunk = (Math.min(fromX, toX) >> CHUNK_SHIFT) * CHUNKS_PER_AXIS + (Math.min(fromY, toY) >> CHUNK_SHIFT);
+			if (vertices != starts[polylines] && chunk != chunks[polylines])
+			{
+				endPolyline();
+			}
+			if (vertices == starts[polylines])
+			{
+				chunks[polylines] = chunk;
+				add(fromX, fromY);
+			}
+			add(toX, toY);
+		}
+
+		private void add(int sceneX, int sceneY)
+		{
+			if (vertices == xs.length)
+			{
+				xs = Arrays.copyOf(xs, vertices * 2);
+				ys = Arrays.copyOf(ys, vertices * 2);
+			}
+			xs[vertices] = sceneX << Perspective.LOCAL_COORD_BITS;
+			ys[vertices] = sceneY << Perspective.LOCAL_COORD_BITS;
+			vertices++;
+		}
+
+		void endPolyline()
+		{
+			if (vertices == starts[polylines])
+			{
+				return;
+			}
+
+			polylines++;
+			if (polylines + 1 >= starts.length)
+			{
+				starts = Arrays.copyOf(starts, starts.length * 2);
+				chunks = Arrays.copyOf(chunks, chunks.length * 2);
+			}
+			starts[polylines] = vertices;
+		}
+
+		/**
+		 * Sorts the polylines by chunk, and finds the height range of every chunk.
+		 */
+		SceneLines build(int[][][] tileHeights)
+		{
+			endPolyline();
+
+			final int[] chunkStarts = new int[CHUNK_COUNT + 1];
+			for (int polyline = 0; polyline < polylines; polyline++)
+			{
+				chunkStarts[chunks[polyline] + 1]++;
+			}
+			for (int chunk = 0; chunk < CHUNK_COUNT; chunk++)
+			{
+				chunkStarts[chunk + 1] += chunkStarts[chunk];
+			}
+
+			final int[] order = new int[polylines];
+			final int[] next = Arrays.copyOf(chunkStarts, CHUNK_COUNT);
+			for (int polyline = 0; polyline < polylines; polyline++)
+			{
+				order[next[chunks[polyline]]++] = polyline;
+			}
+
+			final int[] localX = new int[vertices];
+			final int[] localY = new int[vertices];
+			final int[] polylineStarts = new int[polylines + 1];
+			int vertex = 0;
+			for (int i = 0; i < polylines; i++)
+			{
+				final int start = starts[order[i]];
+				final int length = starts[order[i] + 1] - start;
+				System.arraycopy(xs, start, localX, vertex, length);
+				System.arraycopy(ys, start, localY, vertex, length);
+				polylineStarts[i] = vertex;
+				vertex += length;
+			}
+			polylineStarts[polylines] = vertex;
+
+			final int[] minHeights = new int[CHUNK_COUNT];
+			final int[] maxHeights = new int[CHUNK_COUNT];
+			if (tileHeights != null)
+			{
+				for (int chunk = 0; chunk < CHUNK_COUNT; chunk++)
+				{
+					if (chunkStarts[chunk] != chunkStarts[chunk + 1])
+					{
+						findHeightRange(tileHeights, chunk, minHeights, maxHeights);
+					}
+				}
+			}
+			return new SceneLines(localX, localY, polylineStarts, polylines, chunkStarts, minHeights, maxHeights);
+		}
+	}
+
+	int getVertexCount()
+	{
+		return localX.length;
+	}
+
+	int getPolylineCount()
+	{
+		return polylineCount;
+	}
+
+	/**
+	 * @return index of the first vertex of the polyline; the polyline ends where the next one starts
+	 */
+	int getPolylineStart(int polyline)
+	{
+		return polylineStarts[polyline];
+	}
+
+	/**
+	 * @return index of the first polyline of the chunk; the chunk ends where the next one starts
+	 */
+	int getChunkStart(int chunk)
+	{
+		return chunkStarts[chunk];
+	}
+
+	/**
+	 * @return local x of the west edge of the chunk
+	 */
+	static int getChunkLocalX(int chunk)
+	{
+		return chunk / CHUNKS_PER_AXIS << CHUNK_SHIFT << Perspective.LOCAL_COORD_BITS;
+	}
+
+	/**
+	 * @return local y of the south edge of the chunk
+	 */
+	static int getChunkLocalY(int chunk)
+	{
+		return chunk % CHUNKS_PER_AXIS << CHUNK_SHIFT << Perspective.LOCAL_COORD_BITS;
+	}
+
+	int getChunkMinHeight(int chunk)
+	{
+		return chunkMinHeights[chunk];
+	}
+
+	int getChunkMaxHeight(int chunk)
+	{
+		return chunkMaxHeights[chunk];
+	}
+
+	int[] getLocalX()
+	{
+		return localX;
+	}
+
+	int[] getLocalY()
+	{
+		return localY;
+	}
+}
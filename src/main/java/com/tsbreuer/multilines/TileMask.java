@@ -0,0 +1,497 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.awt.Rectangle;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * A set of world tiles, stored as one 64x64 bitmap per map region that contains any tile.
+ * Each region keeps a long per tile row, with bit {@code n} being the tile {@code n} tiles
+ * east of the region's south-west corner.
+ * <p>
+ * Since all multi geometry is tile aligned this replaces {@link java.awt.geom.Area} unions:
+ * filling rectangles is a few bit operations per row and outlines can be read straight off
+ * the grid.
+ * <p>
+ * A mask is never changed once built. Masks derived from another one by replacing some of its
+ * regions share the bitmaps of every other region with it.
+ */
+final class TileMask
+{
+	static final TileMask EMPTY = new TileMask();
+
+	private static final int REGION_SHIFT = 6;
+	private static final int REGION_SIZE = 1 << REGION_SHIFT;
+	private static final int REGION_MASK = REGION_SIZE - 1;
+	private static final int REGIONS_PER_AXIS = 256;
+	private static final int WORLD_SIZE = REGIONS_PER_AXIS * REGION_SIZE;
+
+	// regions[regionX][regionY][row], with both inner levels created on demand
+	private final long[][][] regions = new long[REGIONS_PER_AXIS][][];
+	private int regionCount;
+
+	private TileMask()
+	{
+	}
+
+	static TileMask of(Collection<Rectangle> rectangles)
+	{
+		final TileMask mask = new TileMask();
+		for (Rectangle rectangle : rectangles)
+		{
+			mask.fill(rectangle.x, rectangle.y, rectangle.width, rectangle.height);
+		}
+		return mask;
+	}
+
+	/**
+	 * Reads a mask written by {@link #write(DataOutput)}.
+	 */
+	static TileMask read(ByteBuffer buffer)
+	{
+		final TileMask mask = new TileMask();
+		final int count = buffer.getInt();
+		for (int i = 0; i < count; i++)
+		{
+			final int region = buffer.getShort() & 0xFFFF;
+			final long[] rows = mask.rows(region >>> 8, region & 0xFF);
+			final long partialRows = buffer.getLong();
+			final long fullRows = buffer.getLong();
+			for (int row = 0; row < REGION_SIZE; row++)
+			{
+				if ((fullRows >>> row & 1) != 0)
+				{
+					rows[row] = -1L;
+				}
+				else if ((partialRows >>> row & 1) != 0)
+				{
+					rows[row] = buffer.getLong();
+				}
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Writes the number of regions, then for each region its id, a bitmap of the rows which are
+	 * partially filled, a bitmap of the rows which are completely filled and finally the
+	 * partially filled rows themselves.
+	 */
+	void write(DataOutput out) throws IOException
+	{
+		out.writeInt(regionCount);
+		for (int regionX = 0; regionX < REGIONS_PER_AXIS; regionX++)
+		{
+			final long[][] column = regions[regionX];
+			if (column == null)
+			{
+				continue;
+			}
+
+			for (int regionY = 0; regionY < REGIONS_PER_AXIS; regionY++)
+			{
+				final long[] rows = column[regionY];
+				if (rows == null)
+				{
+					continue;
+				}
+
+				long partialRows = 0;
+				long fullRows = 0;
+				for (int row = 0; row < REGION_SIZE; row++)
+				{
+					if (rows[row] == -1L)
+					{
+						fullRows |= 1L << row;
+					}
+					else if (rows[row] != 0)
+					{
+						partialRows |= 1L << row;
+					}
+				}
+
+				out.writeShort(regionX << 8 | regionY);
+				out.writeLong(partialRows);
+				out.writeLong(fullRows);
+				for (long row : rows)
+				{
+					if (row != 0 && row != -1L)
+					{
+						out.writeLong(row);
+					}
+				}
+			}
+		}
+	}
+
+	private void fill(int x, int y, int width, int height)
+	{
+		final int minX = Math.max(x, 0);
+		final int minY = Math.max(y, 0);
+		final int maxX = Math.min(x + width, WORLD_SIZE) - 1;
+		final int maxY = Math.min(y + height, WORLD_SIZE) - 1;
+		if (minX > maxX || minY > maxY)
+		{
+			return;
+		}
+
+		for (int regionX = minX >> REGION_SHIFT; regionX <= maxX >> REGION_SHIFT; regionX++)
+		{
+			final int fromBit = regionX == minX >> REGION_SHIFT ? minX & REGION_MASK : 0;
+			final int toBit = regionX == maxX >> REGION_SHIFT ? maxX & REGION_MASK : REGION_MASK;
+			final long bits = (-1L >>> (REGION_MASK - toBit + fromBit)) << fromBit;
+
+			for (int worldY = minY; worldY <= maxY; worldY++)
+			{
+				rows(regionX, worldY >> REGION_SHIFT)[worldY & REGION_MASK] |= bits;
+			}
+		}
+	}
+
+	/**
+	 * @return the rows of a region, creating it if needed
+	 */
+	private long[] rows(int regionX, int regionY)
+	{
+		long[][] column = regions[regionX];
+		if (column == null)
+		{
+			column = regions[regionX] = new long[REGIONS_PER_AXIS][];
+		}
+
+		long[] rows = column[regionY];
+		if (rows == null)
+		{
+			rows = column[regionY] = new long[REGION_SIZE];
+			regionCount++;
+		}
+		return rows;
+	}
+
+	/**
+	 * @return the rows of a region, or null if it contains no tiles
+	 */
+	private long[] rowsOrNull(int regionX, int regionY)
+	{
+		if (regionX < 0 || regionY < 0 || regionX >= REGIONS_PER_AXIS || regionY >= REGIONS_PER_AXIS)
+		{
+			return null;
+		}
+
+		final long[][] column = regions[regionX];
+		return column == null ? null : column[regionY];
+	}
+
+	boolean contains(int x, int y)
+	{
+		final long[] rows = rowsOrNull(x >> REGION_SHIFT, y >> REGION_SHIFT);
+		return rows != null && (rows[y & REGION_MASK] >>> (x & REGION_MASK) & 1) != 0;
+	}
+
+	int getRegionCount()
+	{
+		return regionCount;
+	}
+
+	/**
+	 * @return the id of a region in the sets of regions taken by {@link #replace} and {@link #retain}
+	 */
+	static int regionId(int regionX, int regionY)
+	{
+		return regionX << 8 | regionY;
+	}
+
+	/**
+	 * Adds the regions covered by a rectangle to a set of regions.
+	 */
+	static void addRegions(BitSet regions, Rectangle rectangle)
+	{
+		final int minX = Math.max(rectangle.x, 0) >> REGION_SHIFT;
+		final int minY = Math.max(rectangle.y, 0) >> REGION_SHIFT;
+		final int maxX = (Math.min(rectangle.x + rectangle.width, WORLD_SIZE) - 1) >> REGION_SHIFT;
+		final int maxY = (Math.min(rectangle.y + rectangle.height, WORLD_SIZE) - 1) >> REGION_SHIFT;
+		if (rectangle.width <= 0 || rectangle.height <= 0 || minY > maxY)
+		{
+			return;
+		}
+
+		for (int regionX = minX; regionX <= maxX; regionX++)
+		{
+			regions.set(regionId(regionX, minY), regionId(regionX, maxY) + 1);
+		}
+	}
+
+	/**
+	 * @return how many regions away from a tile the tiles within the given range of it can be
+	 */
+	static int regionsWithin(int range)
+	{
+		return (range + REGION_SIZE - 1) >> REGION_SHIFT;
+	}
+
+	/**
+	 * @return the regions together with every region at most {@code radius} regions along
+	 * either axis from one of them
+	 */
+	static BitSet growRegions(BitSet regions, int radius)
+	{
+		BitSet grown = regions;
+		for (int i = 0; i < radius; i++)
+		{
+			grown = growRegions(grown);
+		}
+		return grown;
+	}
+
+	/**
+	 * @return the regions together with every region next to or diagonal from one of them
+	 */
+	static BitSet growRegions(BitSet regions)
+	{
+		final BitSet grown = new BitSet();
+		for (int region = regions.nextSetBit(0); region >= 0; region = regions.nextSetBit(region + 1))
+		{
+			final int regionX = region >>> 8;
+			final int regionY = region & 0xFF;
+			for (int x = Math.max(regionX - 1, 0); x <= Math.min(regionX + 1, REGIONS_PER_AXIS - 1); x++)
+			{
+				grown.set(regionId(x, Math.max(regionY - 1, 0)), regionId(x, Math.min(regionY + 1, REGIONS_PER_AXIS - 1)) + 1);
+			}
+		}
+		return grown;
+	}
+
+	/**
+	 * @return a mask with the tiles of {@code source} in the given regions and the tiles of this
+	 * mask everywhere else
+	 */
+	TileMask replace(BitSet replaced, TileMask source)
+	{
+		final TileMask result = new TileMask();
+		for (int regionX = 0; regionX < REGIONS_PER_AXIS; regionX++)
+		{
+			if (regions[regionX] != null)
+			{
+				result.regions[regionX] = regions[regionX].clone();
+			}
+		}
+		result.regionCount = regionCount;
+
+		for (int region = replaced.nextSetBit(0); region >= 0; region = replaced.nextSetBit(region + 1))
+		{
+			result.setRows(region >>> 8, region & 0xFF, source.rowsOrNull(region >>> 8, region & 0xFF));
+		}
+		return result;
+	}
+
+	/**
+	 * @return a mask with only the tiles of this mask in the given regions
+	 */
+	TileMask retain(BitSet regions)
+	{
+		return EMPTY.replace(regions, this);
+	}
+
+	private void setRows(int regionX, int regionY, long[] rows)
+	{
+		long[][] column = regions[regionX];
+		if (column == null)
+		{
+			if (rows == null)
+			{
+				return;
+			}
+			column = regions[regionX] = new long[REGIONS_PER_AXIS][];
+		}
+
+		regionCount += (rows == null ? 0 : 1) - (column[regionY] == null ? 0 : 1);
+		column[regionY] = rows;
+	}
+
+	/**
+	 * Finds the outline owned by a region: the edges along the south and west side of each of
+	 * its tiles where that tile and its neighbour differ. Every edge in the world is owned by
+	 * exactly one region, so regions can be outlined independently.
+	 *
+	 * @return the edges merged into runs, as world coordinates {@code x1, y1, x2, y2} per run
+	 */
+	int[] outline(int regionX, int regionY)
+	{
+		final long[] rows = rowsOrNull(regionX, regionY);
+		final long[] south = rowsOrNull(regionX, regionY - 1);
+		final long[] west = rowsOrNull(regionX - 1, regionY);
+		final int baseX = regionX << REGION_SHIFT;
+		final int baseY = regionY << REGION_SHIFT;
+
+		// Bit n of horizontal[row] is the edge from (n, row) to (n + 1, row),
+		// bit n of vertical[row] the one from (n, row) to (n, row + 1)
+		final long[] horizontal = new long[REGION_SIZE];
+		final long[] vertical = new long[REGION_SIZE];
+		for (int row = 0; row < REGION_SIZE; row++)
+		{
+			final long bits = rows == null ? 0 : rows[row];
+			final long below = row > 0 ? (rows == null ? 0 : rows[row - 1]) : (south == null ? 0 : south[REGION_MASK]);
+			final long westBit = west == null ? 0 : west[row] >>> REGION_MASK;
+			horizontal[row] = bits ^ below;
+			vertical[row] = bits ^ (bits << 1 | westBit);
+		}
+
+		int[] runs = new int[64];
+		int length = 0;
+		for (int line = 0; line < REGION_SIZE; line++)
+		{
+			int start = -1;
+			for (int n = 0; n <= REGION_SIZE; n++)
+			{
+				final boolean edge = n < REGION_SIZE && (horizontal[line] >>> n & 1) != 0;
+				if (edge && start == -1)
+				{
+					start = n;
+				}
+				else if (!edge && start != -1)
+				{
+					runs = ensureCapacity(runs, length + 4);
+					runs[length++] = baseX + start;
+					runs[length++] = baseY + line;
+					runs[length++] = baseX + n;
+					runs[length++] = baseY + line;
+					start = -1;
+				}
+			}
+
+			start = -1;
+			for (int n = 0; n <= REGION_SIZE; n++)
+			{
+				final boolean edge = n < REGION_SIZE && (vertical[n] >>> line & 1) != 0;
+				if (edge && start == -1)
+				{
+					start = n;
+				}
+				else if (!edge && start != -1)
+				{
+					runs = ensureCapacity(runs, length + 4);
+					runs[length++] = baseX + line;
+					runs[length++] = baseY + start;
+					runs[length++] = baseX + line;
+					runs[length++] = baseY + n;
+					start = -1;
+				}
+			}
+		}
+		return Arrays.copyOf(runs, length);
+	}
+
+	private static int[] ensureCapacity(int[] array, int size)
+	{
+		return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+	}
+
+	/**
+	 * Grows the mask by every tile within {@code range} steps along the axes, which is the same
+	 * as growing every tile into a diamond. This matches the union of growing each rectangle by
+	 * {@code (range - i, i)} for every {@code i} up to {@code range}.
+	 */
+	TileMask dilate(int range)
+	{
+		TileMask mask = this;
+		for (int i = 0; i < range; i++)
+		{
+			mask = mask.dilateOnce();
+		}
+		return mask;
+	}
+
+	/**
+	 * @return this mask together with every tile directly north, east, south or west of it
+	 */
+	private TileMask dilateOnce()
+	{
+		final TileMask result = new TileMask();
+		for (int regionX = 0; regionX < REGIONS_PER_AXIS; regionX++)
+		{
+			final long[][] column = regions[regionX];
+			if (column == null)
+			{
+				continue;
+			}
+
+			for (int regionY = 0; regionY < REGIONS_PER_AXIS; regionY++)
+			{
+				final long[] rows = column[regionY];
+				if (rows == null)
+				{
+					continue;
+				}
+
+				final long[] out = result.rows(regionX, regionY);
+				for (int row = 0; row < REGION_SIZE; row++)
+				{
+					final long bits = rows[row];
+					if (bits == 0)
+					{
+						continue;
+					}
+
+					out[row] |= bits | bits << 1 | bits >>> 1;
+
+					// Tiles on the edge of the region spill over into the neighbouring region
+					if (bits < 0 && regionX + 1 < REGIONS_PER_AXIS)
+					{
+						result.rows(regionX + 1, regionY)[row] |= 1L;
+					}
+					if ((bits & 1L) != 0 && regionX > 0)
+					{
+						result.rows(regionX - 1, regionY)[row] |= 1L << REGION_MASK;
+					}
+
+					if (row < REGION_MASK)
+					{
+						out[row + 1] |= bits;
+					}
+					else if (regionY + 1 < REGIONS_PER_AXIS)
+					{
+						result.rows(regionX, regionY + 1)[0] |= bits;
+					}
+
+					if (row > 0)
+					{
+						out[row - 1] |= bits;
+					}
+					else if (regionY > 0)
+					{
+						result.rows(regionX, regionY - 1)[REGION_MASK] |= bits;
+					}
+				}
+			}
+		}
+		return result;
+	}
+}
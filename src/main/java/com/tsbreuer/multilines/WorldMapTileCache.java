@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2026, tsbreuer <https://github.com/tsbreuer>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.tsbreuer.multilines;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of world map tiles, one per region and zoom level, with the multi
+ * and spear lines of a dataset drawn on them. Panning the map only has to blit the tiles in
+ * view, and each one is drawn once until it is evicted or a dataset update changes the regions
+ * around it.
+ * <p>
+ * Tiles use a four colour palette, so a tile at the closest zoom takes 64 KB. The cache is
+ * bounded by the bytes its tiles take rather than their number, as the map shows a few dozen
+ * regions zoomed in and thousands zoomed out, and a view which doesn't fit would evict every
+ * tile before it is drawn again. Changing the colours empties the cache.
+ */
+final class WorldMapTileCache
+{
+	private static final int REGION_SIZE = 64;
+	private static final int SPEAR = 1;
+	private static final int MULTI = 2;
+
+	// Roughly what an entry costs besides its pixels
+	private static final int ENTRY_BYTES = 64;
+
+	// Marks regions without any lines, so they aren't drawn again
+	private static final BufferedImage BLANK = new BufferedImage(1, 1, BufferedImage.TYPE_BYTE_BINARY);
+
+	private final Instrumentation instrumentation;
+	private final long capacityBytes;
+	private final Map<TileKey, BufferedImage> tiles = new LinkedHashMap<>(256, 0.75f, true);
+	private long bytes;
+	private Color multiColor;
+	private Color spearColor;
+	private IndexColorModel palette;
+
+	/**
+	 * @param capacityBytes how many bytes the tiles may take, which should hold several views of
+	 * the map
+	 */
+	WorldMapTileCache(long capacityBytes, Instrumentation instrumentation)
+	{
+		this.instrumentation = instrumentation;
+		this.capacityBytes = capacityBytes;
+	}
+
+	/**
+	 * @param spearColor the colour of the spear lines, or null if they are hidden
+	 * @return the tile of the region at the zoom level, or null if it has no lines
+	 */
+	BufferedImage get(Dataset dataset, int spearRange, float zoom, int regionX, int regionY, Color multiColor, Color spearColor)
+	{
+		if (!multiColor.equals(this.multiColor) || (spearColor == null ? this.spearColor != null : !spearColor.equals(this.spearColor)))
+		{
+			clear();
+			this.multiColor = multiColor;
+			this.spearColor = spearColor;
+			palette = createPalette(multiColor, spearColor);
+		}
+
+		final TileKey key = new TileKey(dataset.getRegionVersion(regionX, regionY, spearColor == null ? 1 : 1 + TileMask.regionsWithin(spearRange)), spearRange, Float.floatToIntBits(zoom), regionX << 8 | regionY);
+		BufferedImage tile = tiles.get(key);
+		if (tile == null)
+		{
+			// A reach still being grown elsewhere is left out, and the tile drawn again until it is ready
+			final TileMask reach = spearColor == null ? null : dataset.peekReach(spearRange);
+			tile = draw(dataset, reach, zoom, regionX, regionY);
+			if (spearColor == null || reach != null)
+			{
+				put(key, tile);
+			}
+			instrumentation.count(Instrumentation.Layer.WORLD_MAP, Instrumentation.Counter.TILE_MISSES, 1);
+		}
+		else
+		{
+			instrumentation.count(Instrumentation.Layer.WORLD_MAP, Instrumentation.Counter.TILE_HITS, 1);
+		}
+		return tile == BLANK ? null : tile;
+	}
+
+	void clear()
+	{
+		tiles.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * Adds a tile, evicting the least recently used ones until the tiles fit again.
+	 */
+	private void put(TileKey key, BufferedImage tile)
+	{
+		final BufferedImage replaced = tiles.put(key, tile);
+		bytes += getBytes(tile) - (replaced == null ? 0 : getBytes(replaced));
+		final Iterator<BufferedImage> eldest = tiles.values().iterator();
+		while (bytes > capacityBytes && tiles.size() > 1)
+		{
+			bytes -= getBytes(eldest.next());
+			eldest.remove();
+		}
+	}
+
+	private static long getBytes(BufferedImage tile)
+	{
+		return ENTRY_BYTES + (tile == BLANK ? 0 : tile.getRaster().getDataBuffer().getSize());
+	}
+
+	/**
+	 * @return the size of a tile's side in pixels at the zoom level
+	 */
+	static int getTileSize(float zoom)
+	{
+		return Math.max(1, Math.round(REGION_SIZE * zoom));
+	}
+
+	/**
+	 * @param reach the tiles within spear range, or null to leave out the spear lines
+	 */
+	private BufferedImage draw(Dataset dataset, TileMask reach, float zoom, int regionX, int regionY)
+	{
+		final int[] multi = dataset.getMultiArea().outline(regionX, regionY);
+		final int[] spear = reach == null ? new int[0] : reach.outline(regionX, regionY);
+		if (multi.length == 0 && spear.length == 0)
+		{
+			return BLANK;
+		}
+
+		final int size = getTileSize(zoom);
+		final BufferedImage tile = new BufferedImage(size, size, BufferedImage.TYPE_BYTE_BINARY, palette);
+		final Graphics2D graphics = tile.createGraphics();
+		try
+		{
+			// Blending would pick the nearest palette colour to the blend
+			graphics.setComposite(AlphaComposite.Src);
+			graphics.setColor(new Color(palette.getRGB(SPEAR), true));
+			drawRuns(graphics, spear, regionX * REGION_SIZE, regionY * REGION_SIZE, size);
+			graphics.setColor(new Color(palette.getRGB(MULTI), true));
+			drawRuns(graphics, multi, regionX * REGION_SIZE, regionY * REGION_SIZE, size);
+		}
+		finally
+		{
+			graphics.dispose();
+		}
+		return tile;
+	}
+
+	/**
+	 * Draws outline runs as one pixel wide lines along the tile edges they run on, keeping
+	 * lines on the edge of the region inside the tile.
+	 */
+	private static void drawRuns(Graphics2D graphics, int[] runs, int originX, int originY, int size)
+	{
+		final float scale = (float) size / REGION_SIZE;
+		for (int i = 0; i < runs.length; i += 4)
+		{
+			final int x1 = Math.min(Math.round((runs[i] - originX) * scale), size - 1);
+			final int y1 = Math.min(Math.round((REGION_SIZE - (runs[i + 1] - originY)) * scale), size - 1);
+			final int x2 = Math.min(Math.round((runs[i + 2] - originX) * scale), size - 1);
+			final int y2 = Math.min(Math.round((REGION_SIZE - (runs[i + 3] - originY)) * scale), size - 1);
+			graphics.fillRect(Math.min(x1, x2), Math.min(y1, y2), Math.abs(x2 - x1) + 1, Math.abs(y2 - y1) + 1);
+		}
+	}
+
+	private static IndexColorModel createPalette(Color multiColor, Color spearColor)
+	{
+		final Color spear = spearColor == null ? new Color(0, 0, 0, 0) : spearColor;
+		final byte[] red = {0, (byte) spear.getRed(), (byte) multiColor.getRed(), 0};
+		final byte[] green = {0, (byte) spear.getGreen(), (byte) multiColor.getGreen(), 0};
+		final byte[] blue = {0, (byte) spear.getBlue(), (byte) multiColor.getBlue(), 0};
+		final byte[] alpha = {0, (byte) spear.getAlpha(), (byte) multiColor.getAlpha(), 0};
+		return new IndexColorModel(2, 4, red, green, blue, alpha);
+	}
+
+	private static final class TileKey
+	{
+		private final long regionVersion;
+		private final int spearRange;
+		private final int zoomBits;
+		private final int regionId;
+
+		TileKey(long regionVersion, int spearRange, int zoomBits, int regionId)
+		{
+			this.regionVersion = regionVersion;
+			this.spearRange = spearRange;
+			this.zoomBits = zoomBits;
+			this.regionId = regionId;
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if (!(o instanceof TileKey))
+			{
+				return false;
+			}
+
+			final TileKey other = (TileKey) o;
+			return regionVersion == other.regionVersion && spearRange == other.spearRange && zoomBits == other.zoomBits && regionId == other.regionId;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return ((Long.hashCode(regionVersion) * 31 + spearRange) * 31 + zoomBits) * 31 + regionId;
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.tsbreuer.multilines;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class DatasetCacheTest
+{
+	private static final String NAME = FixtureServer.NORMAL;
+
+	@Rule
+	public TemporaryFolder directory = new TemporaryFolder();
+
+	private FixtureServer server;
+	private DatasetCache cache;
+	private URI uri;
+	private String body = "{\"version\":1}";
+
+	@Before
+	public void before() throws IOException
+	{
+		server = new FixtureServer();
+		server.serve(NAME, body);
+		uri = server.uri(NAME);
+		cache = new DatasetCache(HttpClient.newHttpClient(), directory.getRoot());
+	}
+
+	@After
+	public void after()
+	{
+		server.close();
+	}
+
+	@Test
+	public void testDownloadsAndStores() throws Exception
+	{
+		assertNull(cache.getCached(NAME));
+		assertEquals(body, cache.refresh(NAME, uri, Duration.ZERO));
+		assertEquals(body, cache.getCached(NAME));
+	}
+
+	@Test
+	public void testRevalidatesWithEtag() throws Exception
+	{
+		cache.refresh(NAME, uri, Duration.ZERO);
+		assertNull(cache.refresh(NAME, uri, Duration.ZERO));
+		assertEquals(1, server.getNotModified());
+		assertEquals(body, cache.getCached(NAME));
+	}
+
+	@Test
+	public void testSkipsRequestWithinMaxAge() throws Exception
+	{
+		cache.refresh(NAME, uri, Duration.ZERO);
+		assertNull(cache.refresh(NAME, uri, Duration.ofHours(1)));
+		assertEquals(1, server.getRequests());
+	}
+
+	@Test
+	public void testReplacesChangedDataset() throws Exception
+	{
+		cache.refresh(NAME, uri, Duration.ZERO);
+		body = "{\"version\":2}";
+		server.serve(NAME, body);
+		assertEquals(body, cache.refresh(NAME, uri, Duration.ZERO));
+		assertEquals(body, cache.getCached(NAME));
+	}
+
+	@Test(expected = IOException.class)
+	public void testUnreachableServerThrows() throws Exception
+	{
+		server.close();
+		cache.refresh(NAME, uri, Duration.ZERO);
+	}
+}
@@ -0,0 +1,273 @@
+package com.tsbreuer.multilines;
+
+import java.awt.Rectangle;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Loads the fixture datasets the way the plugin does, downloading them from a local server,
+ * and checks every way of building a dataset ends with the same tiles.
+ */
+public class DatasetFixtureTest
+{
+	@Rule
+	public TemporaryFolder directory = new TemporaryFolder();
+
+	private FixtureServer server;
+	private DatasetCache cache;
+
+	@Before
+	public void before() throws IOException
+	{
+		server = new FixtureServer();
+		cache = new DatasetCache(HttpClient.newHttpClient(), directory.getRoot());
+	}
+
+	@After
+	public void after()
+	{
+		server.close();
+	}
+
+	@Test
+	public void testLoadsBothWorldTypes() throws Exception
+	{
+		final Dataset normal = load(FixtureServer.NORMAL);
+		final Dataset dmm = load(FixtureServer.DMM);
+
+		final List<String> normalNames = names(normal);
+		assertTrue(normalNames.contains("Weiss"));
+		assertFalse("disabled areas are left out", normalNames.contains("South from burgh"));
+		assertFalse("wilderness areas are left out", normalNames.contains("Wilderness fixture"));
+		assertTrue(names(dmm).contains("Deadman fixture"));
+		assertFalse(normalNames.contains("Deadman fixture"));
+
+		assertTrue(normal.getMultiArea().contains(2860, 3930));
+		assertFalse(dmm.getMultiArea().contains(2860, 3930));
+		assertTrue(dmm.getMultiArea().contains(3105, 3305));
+		assertEquals(2, server.getRequests());
+	}
+
+	@Test
+	public void testUpdateMatchesFullBuild() throws Exception
+	{
+		final Dataset first = load(FixtureServer.NORMAL);
+
+		// Move Falador a tile east and drop Al Kharid, as a fix to the mapping would
+		final String original = FixtureServer.fixture(FixtureServer.NORMAL);
+		final String edited = original.replace("\"x\": 2944,", "\"x\": 2945,")
+			.replace("\"Name\": \"Al Kharid\",\n\t\t\t\t\"Removed\": false", "\"Name\": \"Al Kharid\",\n\t\t\t\t\"Removed\": true");
+		assertNotEquals(original, edited);
+		server.serve(FixtureServer.NORMAL, edited);
+
+		final String json = cache.refresh(FixtureServer.NORMAL, server.uri(FixtureServer.NORMAL), Duration.ZERO);
+		assertEquals(edited, json);
+		final List<MultiArea> areas = RectangleNormalizer.normalize(Dataset.parseAreas(json));
+		final Dataset updated = first.update(areas);
+		final Dataset rebuilt = Dataset.of(areas);
+
+		assertFalse(names(updated).contains("Al Kharid"));
+		assertNotEquals(first.getVersion(), updated.getVersion());
+		assertSameTiles(rebuilt, updated, first);
+		assertEquals(outlines(rebuilt.getReach(8), first), outlines(updated.getReach(8), first));
+	}
+
+	@Test
+	public void testUpdateCarriesEveryReach() throws IOException
+	{
+		// Reaches past a region's size as well, which spill further than the changed regions' neighbours
+		final int[] ranges = {1, 4, 16, 63, 64, 65, 130};
+		final List<MultiArea> original = Dataset.parseAreas(FixtureServer.fixture(FixtureServer.NORMAL));
+		final Dataset first = Dataset.of(original);
+		for (int range : ranges)
+		{
+			first.getReach(range);
+		}
+
+		final List<MultiArea> edited = new ArrayList<>();
+		for (MultiArea area : original)
+		{
+			if (area.getName().equals("Falador"))
+			{
+				final List<Rectangle> moved = new ArrayList<>();
+				for (Rectangle rectangle : area.getRectangles())
+				{
+					moved.add(new Rectangle(rectangle.x + 1, rectangle.y, rectangle.width, rectangle.height));
+				}
+				edited.add(new MultiArea(area.getName(), moved));
+			}
+			else if (!area.getName().equals("Al Kharid"))
+			{
+				edited.add(area);
+			}
+		}
+
+		final Dataset updated = first.update(edited);
+		final Dataset rebuilt = Dataset.of(edited);
+		for (int range : ranges)
+		{
+			final TileMask carried = updated.peekReach(range);
+			assertNotNull("reach " + range + " is carried over", carried);
+			assertArrayEquals("reach " + range, bytes(rebuilt.getReach(range)), bytes(carried));
+		}
+	}
+
+	@Test
+	public void testUnchangedDownloadKeepsDataset() throws Exception
+	{
+		load(FixtureServer.NORMAL);
+		assertNull(cache.refresh(FixtureServer.NORMAL, server.uri(FixtureServer.NORMAL), Duration.ZERO));
+		assertNotNull(cache.getCached(FixtureServer.NORMAL));
+	}
+
+	@Test
+	public void testCodecRoundTrip() throws Exception
+	{
+		final Dataset dataset = load(FixtureServer.DMM);
+		final Path file = directory.getRoot().toPath().resolve("processed.bin");
+		DatasetCodec.write(file, 42L, dataset, GeometryFixtures.GOLDEN_REACH);
+		final Dataset read = DatasetCodec.read(file, 42L);
+
+		assertEquals(names(dataset), names(read));
+		assertEquals(dataset.getRectangles(), read.getRectangles());
+		assertSameTiles(dataset, read, dataset);
+
+		// Replacing the file it was read from, as the next start does after a download
+		DatasetCodec.write(file, 43L, read, GeometryFixtures.GOLDEN_REACH);
+		assertNull("built from other json", DatasetCodec.read(file, 42L));
+		assertSameTiles(dataset, DatasetCodec.read(file, 43L), dataset);
+	}
+
+	@Test
+	public void testGeoJsonMatchesRectangles()
+	{
+		final List<MultiArea> rectangles = Dataset.parseAreas(FixtureServer.fixture(FixtureServer.NORMAL));
+		final List<MultiArea> polygons = Dataset.parseAreas(toGeoJson(rectangles));
+		final Dataset expected = Dataset.of(rectangles);
+
+		assertEquals(names(expected), names(Dataset.of(polygons)));
+		assertSameTiles(expected, Dataset.of(polygons), expected);
+		assertSameTiles(expected, Dataset.of(RectangleNormalizer.normalize(rectangles)), expected);
+	}
+
+	@Test
+	public void testPeekReachOnlyReturnsGrownReaches()
+	{
+		final Dataset dataset = GeometryFixtures.normalDataset();
+		assertSame(dataset.getMultiArea(), dataset.peekReach(0));
+		assertNull(dataset.peekReach(3));
+		final TileMask reach = dataset.getReach(3);
+		assertSame(reach, dataset.peekReach(3));
+		assertNull("only the range asked for is kept", dataset.peekReach(2));
+	}
+
+	@Test
+	public void testSharedNamesDontDependOnOrder()
+	{
+		final String first = "{\"Name\":\"Dup\",\"Removed\":false,\"Enabled\":true,\"Wilderness\":false,\"Tiles\":[{\"x\":3200,\"y\":3200,\"width\":4,\"height\":4}]}";
+		final String second = "{\"Name\":\"Dup\",\"Removed\":false,\"Enabled\":true,\"Wilderness\":false,\"Tiles\":[{\"x\":3300,\"y\":3300,\"width\":2,\"height\":2}]}";
+		final Dataset dataset = Dataset.of(Dataset.parseAreas("{\"MultiLines\":{\"Areas\":[" + first + "," + second + "]}}"));
+		final List<MultiArea> swapped = Dataset.parseAreas("{\"MultiLines\":{\"Areas\":[" + second + "," + first + "," + second + "]}}");
+
+		assertEquals(2, swapped.size());
+		assertEquals(new HashSet<>(names(dataset)), swapped.stream().map(MultiArea::getName).collect(Collectors.toSet()));
+		assertSame("reordering areas changes nothing", dataset, dataset.update(swapped));
+	}
+
+	private Dataset load(String name) throws IOException, InterruptedException
+	{
+		final String json = cache.refresh(name, server.uri(name), Duration.ZERO);
+		assertNotNull(json);
+		return Dataset.of(RectangleNormalizer.normalize(Dataset.parseAreas(json)));
+	}
+
+	private static byte[] bytes(TileMask mask) throws IOException
+	{
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		mask.write(new DataOutputStream(out));
+		return out.toByteArray();
+	}
+
+	private static List<String> names(Dataset dataset)
+	{
+		return dataset.getAreas().stream().map(MultiArea::getName).collect(Collectors.toList());
+	}
+
+	/**
+	 * Compares the multi areas and their reach through their outlines around both datasets and
+	 * the one they came from.
+	 */
+	private static void assertSameTiles(Dataset expected, Dataset actual, Dataset origin)
+	{
+		assertEquals(outlines(expected.getMultiArea(), origin, expected, actual), outlines(actual.getMultiArea(), origin, expected, actual));
+		assertEquals(outlines(expected.getReach(GeometryFixtures.GOLDEN_REACH), origin, expected, actual),
+			outlines(actual.getReach(GeometryFixtures.GOLDEN_REACH), origin, expected, actual));
+	}
+
+	private static String outlines(TileMask mask, Dataset... around)
+	{
+		final List<Rectangle> rectangles = new ArrayList<>();
+		for (Dataset dataset : around)
+		{
+			rectangles.addAll(dataset.getRectangles());
+		}
+
+		final StringBuilder out = new StringBuilder();
+		GeometryFixtures.describe(out, "", mask, rectangles);
+		return out.toString();
+	}
+
+	/**
+	 * @return the areas as a GeoJSON FeatureCollection with one square polygon per rectangle
+	 */
+	private static String toGeoJson(List<MultiArea> areas)
+	{
+		final StringBuilder json = new StringBuilder("{\"type\":\"FeatureCollection\",\"features\":[");
+		for (int i = 0; i < areas.size(); i++)
+		{
+			final MultiArea area = areas.get(i);
+			json.append(i > 0 ? "," : "")
+				.append("{\"type\":\"Feature\",\"properties\":{\"Name\":\"").append(area.getName())
+				.append("\"},\"geometry\":{\"type\":\"MultiPolygon\",\"coordinates\":[");
+			final List<Rectangle> rectangles = area.getRectangles();
+			for (int j = 0; j < rectangles.size(); j++)
+			{
+				final Rectangle r = rectangles.get(j);
+				json.append(j > 0 ? "," : "").append("[[")
+					.append(point(r.x, r.y)).append(',')
+					.append(point(r.x + r.width, r.y)).append(',')
+					.append(point(r.x + r.width, r.y + r.height)).append(',')
+					.append(point(r.x, r.y + r.height)).append(',')
+					.append(point(r.x, r.y)).append("]]");
+			}
+			json.append("]}}");
+		}
+		return json.append("]}").toString();
+	}
+
+	private static String point(int x, int y)
+	{
+		return "[" + x + "," + y + "]";
+	}
+}
@@ -0,0 +1,113 @@
+package com.tsbreuer.multilines;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the server the datasets are downloaded from. It serves the files under
+ * {@code fixtures/} with an ETag of their checksum, and any file can be swapped for another
+ * version while it runs.
+ */
+final class FixtureServer implements AutoCloseable
+{
+	static final String NORMAL = "MultiLinesData.json";
+	static final String DMM = "MultiLinesDataDMM.json";
+
+	private final HttpServer server;
+	private final Map<String, String> files = new ConcurrentHashMap<>();
+	private final AtomicInteger requests = new AtomicInteger();
+	private final AtomicInteger notModified = new AtomicInteger();
+
+	FixtureServer() throws IOException
+	{
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", exchange ->
+		{
+			requests.incrementAndGet();
+			final String body = files.get(exchange.getRequestURI().getPath().substring(1));
+			if (body == null)
+			{
+				exchange.sendResponseHeaders(404, -1);
+				exchange.close();
+				return;
+			}
+
+			final String etag = "\"" + Long.toHexString(DatasetCache.checksum(body)) + "\"";
+			if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match")))
+			{
+				notModified.incrementAndGet();
+				exchange.sendResponseHeaders(304, -1);
+				exchange.close();
+				return;
+			}
+
+			final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("ETag", etag);
+			exchange.sendResponseHeaders(200, bytes.length);
+			try (OutputStream out = exchange.getResponseBody())
+			{
+				out.write(bytes);
+			}
+		});
+		files.put(NORMAL, fixture(NORMAL));
+		files.put(DMM, fixture(DMM));
+		server.start();
+	}
+
+	/**
+	 * @return the contents of a file under {@code fixtures/}
+	 */
+	static String fixture(String name)
+	{
+		try (InputStream in = FixtureServer.class.getResourceAsStream("fixtures/" + name))
+		{
+			if (in == null)
+			{
+				throw new IllegalArgumentException("No fixture " + name);
+			}
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	URI uri(String name)
+	{
+		return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/" + name);
+	}
+
+	void serve(String name, String body)
+	{
+		files.put(name, body);
+	}
+
+	int getRequests()
+	{
+		return requests.get();
+	}
+
+	/**
+	 * @return how many requests were answered with 304 Not Modified
+	 */
+	int getNotModified()
+	{
+		return notModified.get();
+	}
+
+	@Override
+	public void close()
+	{
+		server.stop(0);
+	}
+}
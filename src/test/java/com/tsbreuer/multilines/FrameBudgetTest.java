@@ -0,0 +1,175 @@
+package com.tsbreuer.multilines;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Fails when drawing a frame of the overlay, with or without the tile fills, or building the
+ * geometry of a scene gets much slower, timed on a large synthetic dataset with the camera
+ * turning every frame. The budgets are the median time in microseconds, well above what a
+ * laptop takes, and can be raised for slow machines with {@code -Dmultilines.frameBudget},
+ * {@code -Dmultilines.filledFrameBudget} and {@code -Dmultilines.sceneBudget}.
+ * <p>
+ * A filled frame mostly costs blending the pixels the fills cover, which in the dense scene is
+ * nearly the whole canvas twice over, so it is timed on the fixture's own Weiss scene instead.
+ */
+public class FrameBudgetTest
+{
+	private static final long FRAME_BUDGET = Long.getLong("multilines.frameBudget", 4_000);
+	private static final long FILLED_FRAME_BUDGET = Long.getLong("multilines.filledFrameBudget", 15_000);
+	private static final long SCENE_BUDGET = Long.getLong("multilines.sceneBudget", 25_000);
+
+	private static final int WARMUP = 200;
+	private static final int MEASURED = 200;
+	private static final int SPEAR_RANGE = 4;
+	private static final int DISTANCE_LIMIT = 16;
+
+	// The Weiss scene, which the extra noise is added to
+	private static final int BASE_X = 2808;
+	private static final int BASE_Y = 3880;
+
+	// Copies of the fixture are placed this far apart, so they never overlap
+	private static final int COPY_SPACING = 4096;
+	private static final int COPIES = 16;
+
+	private final StubClient stub = new StubClient();
+	private final Instrumentation instrumentation = new Instrumentation();
+	private Dataset dataset;
+	private BufferedImage image;
+	private Graphics2D graphics;
+
+	@Before
+	public void before()
+	{
+		dataset = Dataset.of(RectangleNormalizer.normalize(syntheticAreas()));
+		// Like the client's own buffer, which has no alpha
+		image = new BufferedImage(StubClient.CANVAS_WIDTH, StubClient.CANVAS_HEIGHT, BufferedImage.TYPE_INT_RGB);
+		graphics = image.createGraphics();
+	}
+
+	@After
+	public void after()
+	{
+		graphics.dispose();
+	}
+
+	@Test
+	public void testFrameWithinBudget()
+	{
+		assertWithinBudget("frame", timeFrames(dataset, false), FRAME_BUDGET);
+	}
+
+	@Test
+	public void testFilledFrameWithinBudget()
+	{
+		assertWithinBudget("filled frame", timeFrames(GeometryFixtures.normalDataset(), true), FILLED_FRAME_BUDGET);
+	}
+
+	@Test
+	public void testSceneRebuildWithinBudget()
+	{
+		final long[] times = new long[MEASURED / 10];
+		for (int rebuild = -WARMUP / 10; rebuild < times.length; rebuild++)
+		{
+			// A new scene every time, so nothing comes from the region caches
+			final RegionLineCache multiCache = new RegionLineCache(64, instrumentation);
+			final RegionLineCache spearCache = new RegionLineCache(64, instrumentation);
+			final long start = System.nanoTime();
+			new GeometrySnapshot(dataset.getVersion(), SPEAR_RANGE, BASE_X, BASE_Y, GeometrySnapshot.NOT_INSTANCED,
+				SceneLines.fromDataset(dataset, 0, multiCache, BASE_X, BASE_Y, stub.tileHeights, stub.tileSettings),
+				SceneLines.fromDataset(dataset, SPEAR_RANGE, spearCache, BASE_X, BASE_Y, stub.tileHeights, stub.tileSettings),
+				SceneFill.fromMask(dataset.getMultiArea(), null, BASE_X, BASE_Y, stub.tileHeights, stub.tileSettings),
+				SceneFill.fromMask(dataset.getReach(SPEAR_RANGE), dataset.getMultiArea(), BASE_X, BASE_Y, stub.tileHeights, stub.tileSettings),
+				DistanceField.of(dataset.getMultiArea(), BASE_X, BASE_Y, DISTANCE_LIMIT));
+			if (rebuild >= 0)
+			{
+				times[rebuild] = System.nanoTime() - start;
+			}
+		}
+
+		assertWithinBudget("scene rebuild", times, SCENE_BUDGET);
+	}
+
+	private long[] timeFrames(Dataset scene, boolean filled)
+	{
+		final SceneLines multiLines = SceneLines.fromDataset(scene, 0, new RegionLineCache(64, instrumentation), BASE_X, BASE_Y, stub.tileHeights, stub.tileSettings);
+		final SceneLines spearLines = SceneLines.fromDataset(scene, SPEAR_RANGE, new RegionLineCache(64, instrumentation), BASE_X, BASE_Y, stub.tileHeights, stub.tileSettings);
+		final SceneFill multiFill = SceneFill.fromMask(scene.getMultiArea(), null, BASE_X, BASE_Y, stub.tileHeights, stub.tileSettings);
+		final SceneFill spearFill = SceneFill.fromMask(scene.getReach(SPEAR_RANGE), scene.getMultiArea(), BASE_X, BASE_Y, stub.tileHeights, stub.tileSettings);
+		assertTrue("the scene has lines to draw", multiLines.getVertexCount() > 100);
+
+		final LineProjector projector = new ClientLineProjector(stub.client());
+		final LineRenderer multiRenderer = new LineRenderer(instrumentation, Instrumentation.Layer.SCENE);
+		final LineRenderer spearRenderer = new LineRenderer(instrumentation, Instrumentation.Layer.SCENE);
+		final FillRenderer multiFillRenderer = new FillRenderer(instrumentation, Instrumentation.Layer.SCENE);
+		final FillRenderer spearFillRenderer = new FillRenderer(instrumentation, Instrumentation.Layer.SCENE);
+		final long[] times = new long[MEASURED];
+		for (int frame = -WARMUP; frame < MEASURED; frame++)
+		{
+			stub.cameraYaw = stub.cameraYaw + 7 & 2047;
+			final long start = System.nanoTime();
+			if (filled)
+			{
+				spearFillRenderer.render(graphics, spearFill, projector, new Color(255, 200, 0, 40));
+				multiFillRenderer.render(graphics, multiFill, projector, new Color(255, 0, 0, 40));
+			}
+			multiRenderer.render(graphics, multiLines, projector, Color.RED);
+			spearRenderer.render(graphics, spearLines, projector, Color.ORANGE);
+			if (frame >= 0)
+			{
+				times[frame] = System.nanoTime() - start;
+			}
+		}
+		return times;
+	}
+
+	private static void assertWithinBudget(String what, long[] times, long budgetMicros)
+	{
+		Arrays.sort(times);
+		final long median = times[times.length / 2] / 1000;
+		assertTrue(what + " took " + median + " us, the budget is " + budgetMicros + " us", median <= budgetMicros);
+	}
+
+	/**
+	 * @return copies of the fixture spread over the world, and small areas scattered over the
+	 * Weiss scene so its lines are far denser than any real scene's
+	 */
+	private static List<MultiArea> syntheticAreas()
+	{
+		final List<MultiArea> fixture = Dataset.parseAreas(FixtureServer.fixture(FixtureServer.NORMAL));
+		final List<MultiArea> areas = new ArrayList<>();
+		for (int copy = 0; copy < COPIES; copy++)
+		{
+			final int dx = copy % 4 * COPY_SPACING;
+			final int dy = copy / 4 * COPY_SPACING;
+			for (MultiArea area : fixture)
+			{
+				final List<Rectangle> rectangles = new ArrayList<>();
+				for (Rectangle rectangle : area.getRectangles())
+				{
+					rectangles.add(new Rectangle(rectangle.x + dx, rectangle.y + dy, rectangle.width, rectangle.height));
+				}
+				areas.add(new MultiArea(area.getName() + " " + copy, rectangles));
+			}
+		}
+
+		final Random random = new Random(24);
+		final List<Rectangle> noise = new ArrayList<>();
+		for (int i = 0; i < 600; i++)
+		{
+			noise.add(new Rectangle(BASE_X + random.nextInt(104), BASE_Y + random.nextInt(104), 1 + random.nextInt(4), 1 + random.nextInt(4)));
+		}
+		areas.add(new MultiArea("Noise", noise));
+		return areas;
+	}
+}
@@ -0,0 +1,120 @@
+package com.tsbreuer.multilines;
+
+import java.awt.Rectangle;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks polygons are filled with the tiles whose centre is inside them, for the shapes a
+ * rectangle dataset can't describe in one go.
+ */
+public class GeoJsonReaderTest
+{
+	private static final int X = 3200;
+	private static final int Y = 3200;
+
+	@Test
+	public void testPolygonWithHole()
+	{
+		final List<MultiArea> areas = read(feature("Hole", "Polygon", "[" + ring(0, 0, 10, 0, 10, 10, 0, 10) + "," + ring(3, 3, 6, 3, 6, 6, 3, 6) + "]"));
+		assertTiles(areas, 10, 10, (x, y) -> !(x >= 3 && x < 6 && y >= 3 && y < 6));
+	}
+
+	@Test
+	public void testConcavePolygon()
+	{
+		// A U open to the north
+		final List<MultiArea> areas = read(feature("U", "Polygon", "[" + ring(0, 0, 6, 0, 6, 6, 4, 6, 4, 2, 2, 2, 2, 6, 0, 6) + "]"));
+		assertTiles(areas, 6, 6, (x, y) -> y < 2 || x < 2 || x >= 4);
+	}
+
+	@Test
+	public void testMultiPolygon()
+	{
+		final List<MultiArea> areas = read(feature("Two", "MultiPolygon", "[[" + ring(0, 0, 2, 0, 2, 2, 0, 2) + "],[" + ring(5, 5, 7, 5, 7, 8, 5, 8) + "]]"));
+		assertEquals(1, areas.size());
+		assertTiles(areas, 7, 8, (x, y) -> x < 2 && y < 2 || x >= 5 && y >= 5);
+	}
+
+	@Test
+	public void testDiagonalEdge()
+	{
+		// The hypotenuse runs two tiles across for every tile up, so no tile centre lies on it
+		final List<MultiArea> areas = read(feature("Triangle", "Polygon", "[" + ring(0, 0, 8, 0, 0, 4) + "]"));
+		assertTiles(areas, 8, 4, (x, y) -> x + 2 * y <= 6);
+	}
+
+	@Test
+	public void testSkipsFeaturesWithoutGeometry()
+	{
+		final List<MultiArea> areas = read(feature("Square", "Polygon", "[" + ring(0, 0, 2, 0, 2, 2, 0, 2) + "]"),
+			"{\"type\":\"Feature\",\"properties\":{\"Name\":\"Null\"},\"geometry\":null}",
+			"{\"type\":\"Feature\",\"properties\":{\"Name\":\"Missing\"}}");
+		assertEquals(1, areas.size());
+		assertEquals("Square", areas.get(0).getName());
+	}
+
+	private static List<MultiArea> read(String... features)
+	{
+		return Dataset.parseAreas("{\"type\":\"FeatureCollection\",\"features\":[" + String.join(",", features) + "]}");
+	}
+
+	private static String feature(String name, String type, String coordinates)
+	{
+		return "{\"type\":\"Feature\",\"properties\":{\"Name\":\"" + name + "\"},\"geometry\":{\"type\":\"" + type + "\",\"coordinates\":" + coordinates + "}}";
+	}
+
+	/**
+	 * @return a closed ring of the points, given relative to the test's origin
+	 */
+	private static String ring(int... points)
+	{
+		final StringBuilder ring = new StringBuilder("[");
+		for (int i = 0; i <= points.length; i += 2)
+		{
+			final int point = i % points.length;
+			ring.append(i > 0 ? "," : "").append('[').append(X + points[point]).append(',').append(Y + points[point + 1]).append(']');
+		}
+		return ring.append(']').toString();
+	}
+
+	/**
+	 * Checks the areas cover the tiles in the box from the origin which pass {@code inside}, each
+	 * exactly once, and nothing else.
+	 */
+	private static void assertTiles(List<MultiArea> areas, int width, int height, BiPredicate<Integer, Integer> inside)
+	{
+		final Set<String> expected = new HashSet<>();
+		for (int x = 0; x < width; x++)
+		{
+			for (int y = 0; y < height; y++)
+			{
+				if (inside.test(x, y))
+				{
+					expected.add(x + "," + y);
+				}
+			}
+		}
+
+		final Set<String> actual = new HashSet<>();
+		for (MultiArea area : areas)
+		{
+			for (Rectangle rectangle : area.getRectangles())
+			{
+				for (int x = rectangle.x; x < rectangle.x + rectangle.width; x++)
+				{
+					for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++)
+					{
+						assertTrue("tile filled twice at " + x + ", " + y, actual.add((x - X) + "," + (y - Y)));
+					}
+				}
+			}
+		}
+		assertEquals(expected, actual);
+	}
+}
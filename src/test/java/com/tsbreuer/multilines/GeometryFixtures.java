@@ -0,0 +1,120 @@
+package com.tsbreuer.multilines;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * The golden outlines the geometry tests compare against: every outline run of the fixture's
+ * multi area and of its reach, one per line. They are worked out by {@link ReferenceTiles}
+ * rather than the code under test, so after changing the fixture run {@link #main} from the
+ * project directory to write them again, and review the diff.
+ */
+final class GeometryFixtures
+{
+	static final String GOLDEN_OUTLINES = "outlines.txt";
+	static final int GOLDEN_REACH = 4;
+
+	private GeometryFixtures()
+	{
+	}
+
+	/**
+	 * @return the fixture's areas as the plugin loads them
+	 */
+	static Dataset normalDataset()
+	{
+		return Dataset.of(RectangleNormalizer.normalize(Dataset.parseAreas(FixtureServer.fixture(FixtureServer.NORMAL))));
+	}
+
+	/**
+	 * @return the fixture's rectangles as they are in the file, before they are normalized
+	 */
+	static List<Rectangle> fixtureRectangles()
+	{
+		final List<Rectangle> rectangles = new ArrayList<>();
+		for (MultiArea area : Dataset.parseAreas(FixtureServer.fixture(FixtureServer.NORMAL)))
+		{
+			rectangles.addAll(area.getRectangles());
+		}
+		return rectangles;
+	}
+
+	/**
+	 * @return the outlines of the dataset's multi area and reach, in the layout of the golden file
+	 */
+	static String outlines(Dataset dataset)
+	{
+		final StringBuilder out = new StringBuilder();
+		describe(out, "multi", dataset.getMultiArea(), dataset.getRectangles());
+		describe(out, "reach" + GOLDEN_REACH, dataset.getReach(GOLDEN_REACH), dataset.getRectangles());
+		return out.toString();
+	}
+
+	/**
+	 * @return the golden outlines, worked out from the fixture's rectangles by {@link ReferenceTiles}
+	 */
+	static String referenceOutlines()
+	{
+		final List<Rectangle> rectangles = fixtureRectangles();
+		final StringBuilder out = new StringBuilder();
+		describe(out, "multi", new ReferenceTiles(rectangles, 0)::outline, rectangles);
+		describe(out, "reach" + GOLDEN_REACH, new ReferenceTiles(rectangles, GOLDEN_REACH)::outline, rectangles);
+		return out.toString();
+	}
+
+	/**
+	 * Lists the outline runs of every region around the rectangles, which covers the whole mask
+	 * as long as it grew less than a region past them.
+	 */
+	static void describe(StringBuilder out, String label, TileMask mask, Collection<Rectangle> rectangles)
+	{
+		describe(out, label, mask::outline, rectangles);
+	}
+
+	private static void describe(StringBuilder out, String label, BiFunction<Integer, Integer, int[]> outlines, Collection<Rectangle> rectangles)
+	{
+		if (rectangles.isEmpty())
+		{
+			return;
+		}
+
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE;
+		int maxY = Integer.MIN_VALUE;
+		for (Rectangle rectangle : rectangles)
+		{
+			minX = Math.min(minX, rectangle.x >> 6);
+			minY = Math.min(minY, rectangle.y >> 6);
+			maxX = Math.max(maxX, (rectangle.x + rectangle.width) >> 6);
+			maxY = Math.max(maxY, (rectangle.y + rectangle.height) >> 6);
+		}
+
+		for (int regionX = Math.max(0, minX - 1); regionX <= Math.min(255, maxX + 1); regionX++)
+		{
+			for (int regionY = Math.max(0, minY - 1); regionY <= Math.min(255, maxY + 1); regionY++)
+			{
+				final int[] runs = outlines.apply(regionX, regionY);
+				for (int i = 0; i < runs.length; i += 4)
+				{
+					out.append(label).append(' ').append(runs[i]).append(' ').append(runs[i + 1])
+						.append(' ').append(runs[i + 2]).append(' ').append(runs[i + 3]).append('\n');
+				}
+			}
+		}
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		final Path file = Paths.get("src/test/resources/com/tsbreuer/multilines/fixtures", GOLDEN_OUTLINES);
+		Files.write(file, referenceOutlines().getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,313 @@
+package com.tsbreuer.multilines;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import net.runelite.api.Constants;
+import net.runelite.api.Perspective;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the tiles of the fixture dataset and of hand picked edge cases against
+ * {@link ReferenceTiles}, their outlines against golden ones worked out the same way, and the
+ * lines and fills of whole scenes against their tiles, so that faster ways of building them can
+ * be tried without moving a line.
+ */
+public class GoldenGeometryTest
+{
+	// Scenes around Weiss, Draynor jail and the bandit camp, which have the most lines
+	private static final int[][] SCENES = {{2808, 3880}, {3056, 3208}, {3096, 2912}};
+
+	private static final int MAX_RANGE = 16;
+
+	// Around Lumbridge, with regions starting at multiples of 64
+	private static final Rectangle[] EDGE_CASES = {
+		// Sharing an edge, and a corner with the next one
+		new Rectangle(3210, 3210, 5, 5),
+		new Rectangle(3215, 3210, 5, 5),
+		new Rectangle(3220, 3215, 3, 3),
+		// Overlapping, and one inside another
+		new Rectangle(3230, 3230, 10, 10),
+		new Rectangle(3235, 3235, 10, 10),
+		new Rectangle(3237, 3237, 2, 2),
+		// Ending on a region border, starting on one, and across a region corner
+		new Rectangle(3260, 3240, 4, 6),
+		new Rectangle(3264, 3250, 4, 6),
+		new Rectangle(3326, 3262, 4, 4),
+		// A single tile, and a line of tiles through three regions
+		new Rectangle(3300, 3300, 1, 1),
+		new Rectangle(3340, 3170, 1, 170)};
+
+	private final StubClient stub = new StubClient();
+	private Dataset dataset;
+
+	@Before
+	public void before()
+	{
+		dataset = GeometryFixtures.normalDataset();
+
+		// Hills on the lower half of the scene, so the lines are split where the slope changes
+		final Random random = new Random(24);
+		for (int z = 0; z < Constants.MAX_Z; z++)
+		{
+			for (int x = 0; x < Constants.SCENE_SIZE; x++)
+			{
+				for (int y = 0; y < Constants.SCENE_SIZE / 2; y++)
+				{
+					stub.tileHeights[z][x][y] = -random.nextInt(4) * 64;
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testOutlinesMatchGolden()
+	{
+		assertEquals(FixtureServer.fixture(GeometryFixtures.GOLDEN_OUTLINES), GeometryFixtures.outlines(dataset));
+	}
+
+	@Test
+	public void testGoldenMatchesReference()
+	{
+		assertEquals("run GeometryFixtures.main after changing the fixture",
+			GeometryFixtures.referenceOutlines(), FixtureServer.fixture(GeometryFixtures.GOLDEN_OUTLINES));
+	}
+
+	@Test
+	public void testFixtureMatchesReference()
+	{
+		// The rectangles as they are in the file, while the dataset has them normalized
+		assertMatchesReference(GeometryFixtures.fixtureRectangles(), dataset);
+	}
+
+	@Test
+	public void testEdgeCasesMatchReference()
+	{
+		assertMatchesReference(Arrays.asList(EDGE_CASES), Dataset.of(Collections.singletonList(new MultiArea("Edge cases", Arrays.asList(EDGE_CASES)))));
+	}
+
+	/**
+	 * Checks {@link TileMask#of}, and the reach of the dataset both grown one range at a time
+	 * and in one go, against the reference for every range up to {@link #MAX_RANGE}. Every tile
+	 * of the regions around the reference is compared, and the masks may have no other regions.
+	 */
+	private static void assertMatchesReference(List<Rectangle> rectangles, Dataset dataset)
+	{
+		final TileMask multiArea = TileMask.of(rectangles);
+		for (int range = 0; range <= MAX_RANGE; range++)
+		{
+			final ReferenceTiles reference = new ReferenceTiles(rectangles, range);
+			final TileMask reach = dataset.getReach(range);
+			final TileMask dilated = multiArea.dilate(range);
+			final Rectangle bounds = reference.getBounds();
+			final Set<Integer> regions = new HashSet<>();
+			for (int x = ((bounds.x >> 6) - 1) << 6; x < ((bounds.x + bounds.width >> 6) + 2) << 6; x++)
+			{
+				for (int y = ((bounds.y >> 6) - 1) << 6; y < ((bounds.y + bounds.height >> 6) + 2) << 6; y++)
+				{
+					final boolean expected = reference.contains(x, y);
+					if (reach.contains(x, y) != expected || dilated.contains(x, y) != expected)
+					{
+						fail("range " + range + " at " + x + ", " + y + ": reference " + expected + ", reach " + reach.contains(x, y)
+							+ ", dilated " + dilated.contains(x, y));
+					}
+					if (expected)
+					{
+						regions.add(TileMask.regionId(x >> 6, y >> 6));
+					}
+				}
+			}
+			assertEquals("range " + range + " regions", regions.size(), reach.getRegionCount());
+			assertEquals("range " + range + " regions", regions.size(), dilated.getRegionCount());
+		}
+	}
+
+	@Test
+	public void testSceneLinesFollowTileEdges()
+	{
+		final RegionLineCache cache = new RegionLineCache(64, new Instrumentation());
+		for (int[] scene : SCENES)
+		{
+			for (int reach : new int[]{0, GeometryFixtures.GOLDEN_REACH})
+			{
+				final TileMask mask = reach == 0 ? dataset.getMultiArea() : dataset.getReach(reach);
+				final SceneLines lines = SceneLines.fromDataset(dataset, reach, cache, scene[0], scene[1], stub.tileHeights, stub.tileSettings);
+				assertEquals("scene " + scene[0] + ", " + scene[1] + " reach " + reach, tileEdges(mask, scene[0], scene[1]), lineEdges(lines));
+			}
+		}
+	}
+
+	@Test
+	public void testCachedRegionsMatchDirectOutline()
+	{
+		final RegionLineCache cache = new RegionLineCache(64, new Instrumentation());
+		for (int[] scene : SCENES)
+		{
+			// Twice, so the second build reads every region from the cache
+			SceneLines.fromDataset(dataset, GeometryFixtures.GOLDEN_REACH, cache, scene[0], scene[1], stub.tileHeights, stub.tileSettings);
+			assertSameLines(SceneLines.fromMask(dataset.getReach(GeometryFixtures.GOLDEN_REACH), scene[0], scene[1], stub.tileHeights, stub.tileSettings),
+				SceneLines.fromDataset(dataset, GeometryFixtures.GOLDEN_REACH, cache, scene[0], scene[1], stub.tileHeights, stub.tileSettings));
+		}
+	}
+
+	@Test
+	public void testUnrotatedInstanceMatchesScene()
+	{
+		final RegionLineCache cache = new RegionLineCache(64, new Instrumentation());
+		for (int[] scene : SCENES)
+		{
+			// An instance copying the scene's own chunks in place
+			final int[][][] templates = new int[Constants.MAX_Z][SceneLines.CHUNKS_PER_AXIS][SceneLines.CHUNKS_PER_AXIS];
+			for (int chunkX = 0; chunkX < SceneLines.CHUNKS_PER_AXIS; chunkX++)
+			{
+				for (int chunkY = 0; chunkY < SceneLines.CHUNKS_PER_AXIS; chunkY++)
+				{
+					templates[0][chunkX][chunkY] = (scene[0] / SceneLines.CHUNK_SIZE + chunkX) << 14 | (scene[1] / SceneLines.CHUNK_SIZE + chunkY) << 3;
+				}
+			}
+
+			final TileMask instance = InstanceChunkMap.of(templates, 0).toSceneMask(dataset.getMultiArea(), scene[0], scene[1]);
+			assertSameLines(SceneLines.fromDataset(dataset, 0, cache, scene[0], scene[1], stub.tileHeights, stub.tileSettings),
+				SceneLines.fromMask(instance, scene[0], scene[1], stub.tileHeights, stub.tileSettings));
+		}
+	}
+
+	@Test
+	public void testFillCoversTiles()
+	{
+		for (int[] scene : SCENES)
+		{
+			final TileMask multi = dataset.getMultiArea();
+			final TileMask reach = dataset.getReach(GeometryFixtures.GOLDEN_REACH);
+			assertEquals(tiles(multi, null, scene[0], scene[1]),
+				spanTiles(SceneFill.fromMask(multi, null, scene[0], scene[1], stub.tileHeights, stub.tileSettings)));
+			assertEquals(tiles(reach, multi, scene[0], scene[1]),
+				spanTiles(SceneFill.fromMask(reach, multi, scene[0], scene[1], stub.tileHeights, stub.tileSettings)));
+		}
+	}
+
+	/**
+	 * @return the tiles of the mask but not of {@code excluded} whose corners are all in the
+	 * drawable part of the scene, as {@code x, y} in scene coordinates
+	 */
+	private static Set<String> tiles(TileMask mask, TileMask excluded, int baseX, int baseY)
+	{
+		final Set<String> tiles = new HashSet<>();
+		for (int x = 1; x <= Constants.SCENE_SIZE - 3; x++)
+		{
+			for (int y = 1; y <= Constants.SCENE_SIZE - 3; y++)
+			{
+				if (mask.contains(baseX + x, baseY + y) && (excluded == null || !excluded.contains(baseX + x, baseY + y)))
+				{
+					tiles.add(x + "," + y);
+				}
+			}
+		}
+		return tiles;
+	}
+
+	/**
+	 * @return the tiles the spans are made of, each of which must be filled only once
+	 */
+	private static Set<String> spanTiles(SceneFill fill)
+	{
+		final Set<String> tiles = new HashSet<>();
+		final int[] localX = fill.getLocalX();
+		final int[] localY = fill.getLocalY();
+		for (int chunk = 0; chunk < SceneLines.CHUNK_COUNT; chunk++)
+		{
+			for (int span = fill.getChunkStart(chunk); span < fill.getChunkStart(chunk + 1); span++)
+			{
+				final int corner = span * SceneFill.CORNERS;
+				final int x1 = localX[corner] >> Perspective.LOCAL_COORD_BITS;
+				final int x2 = localX[corner + 1] >> Perspective.LOCAL_COORD_BITS;
+				final int y = localY[corner] >> Perspective.LOCAL_COORD_BITS;
+				assertEquals("spans stay in their chunk", chunk, (x1 / SceneLines.CHUNK_SIZE) * SceneLines.CHUNKS_PER_AXIS + y / SceneLines.CHUNK_SIZE);
+				assertEquals("spans stay in their chunk", x1 / SceneLines.CHUNK_SIZE, (x2 - 1) / SceneLines.CHUNK_SIZE);
+				for (int x = x1; x < x2; x++)
+				{
+					assertTrue("tile filled twice at " + x + ", " + y, tiles.add(x + "," + y));
+				}
+			}
+		}
+		return tiles;
+	}
+
+	/**
+	 * @return the tile edges inside the drawable part of the scene with a tile of the mask on
+	 * only one side, as {@code x, y, dx, dy} in scene coordinates
+	 */
+	private static Set<String> tileEdges(TileMask mask, int baseX, int baseY)
+	{
+		final int max = Constants.SCENE_SIZE - 2;
+		final Set<String> edges = new HashSet<>();
+		for (int x = 1; x <= max; x++)
+		{
+			for (int y = 1; y <= max; y++)
+			{
+				final boolean inside = mask.contains(baseX + x, baseY + y);
+				if (x < max && inside != mask.contains(baseX + x, baseY + y - 1))
+				{
+					edges.add(x + "," + y + ",1,0");
+				}
+				if (y < max && inside != mask.contains(baseX + x - 1, baseY + y))
+				{
+					edges.add(x + "," + y + ",0,1");
+				}
+			}
+		}
+		return edges;
+	}
+
+	/**
+	 * @return the tile edges the lines are made of, each of which must be drawn only once
+	 */
+	private static Set<String> lineEdges(SceneLines lines)
+	{
+		final Set<String> edges = new HashSet<>();
+		final int[] localX = lines.getLocalX();
+		final int[] localY = lines.getLocalY();
+		for (int polyline = 0; polyline < lines.getPolylineCount(); polyline++)
+		{
+			for (int i = lines.getPolylineStart(polyline) + 1; i < lines.getPolylineStart(polyline + 1); i++)
+			{
+				final int x1 = localX[i - 1] >> Perspective.LOCAL_COORD_BITS;
+				final int y1 = localY[i - 1] >> Perspective.LOCAL_COORD_BITS;
+				final int x2 = localX[i] >> Perspective.LOCAL_COORD_BITS;
+				final int y2 = localY[i] >> Perspective.LOCAL_COORD_BITS;
+				final int dx = Integer.signum(x2 - x1);
+				final int dy = Integer.signum(y2 - y1);
+				assertTrue("segments run along one axis", dx == 0 ^ dy == 0);
+				for (int x = Math.min(x1, x2), y = Math.min(y1, y2); x < Math.max(x1, x2) || y < Math.max(y1, y2); x += Math.abs(dx), y += Math.abs(dy))
+				{
+					assertTrue("edge drawn twice at " + x + ", " + y, edges.add(x + "," + y + "," + Math.abs(dx) + "," + Math.abs(dy)));
+				}
+			}
+		}
+		return edges;
+	}
+
+	private static void assertSameLines(SceneLines expected, SceneLines actual)
+	{
+		assertArrayEquals(expected.getLocalX(), actual.getLocalX());
+		assertArrayEquals(expected.getLocalY(), actual.getLocalY());
+		assertEquals(expected.getPolylineCount(), actual.getPolylineCount());
+		for (int polyline = 0; polyline <= expected.getPolylineCount(); polyline++)
+		{
+			assertEquals(expected.getPolylineStart(polyline), actual.getPolylineStart(polyline));
+		}
+		for (int chunk = 0; chunk <= SceneLines.CHUNK_COUNT; chunk++)
+		{
+			assertEquals(expected.getChunkStart(chunk), actual.getChunkStart(chunk));
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package com.tsbreuer.multilines;
+
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import net.runelite.api.coords.WorldPoint;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks reaches which were never grown are answered the same as grown ones, without growing
+ * them.
+ */
+public class MultiAreaServiceTest
+{
+	// Around Weiss, which has areas of many shapes close together
+	private static final int MIN_X = 2800;
+	private static final int MIN_Y = 3870;
+	private static final int SIZE = 120;
+
+	private final MultiAreaService service = new MultiAreaService(new MultiLinesConfig()
+	{
+		@Override
+		public void setWarning(String key)
+		{
+		}
+	});
+	private Dataset dataset;
+
+	@Before
+	public void before()
+	{
+		dataset = GeometryFixtures.normalDataset();
+		service.setDataset(dataset);
+	}
+
+	@Test
+	public void testUngrownReachMatchesGrown()
+	{
+		for (int range = 1; range <= MultiAreaService.MAX_RANGE; range++)
+		{
+			assertNull(dataset.peekReach(range));
+			final Dataset grown = Dataset.of(dataset.getAreas());
+			final TileMask reach = grown.getReach(range);
+			for (int x = MIN_X; x < MIN_X + SIZE; x++)
+			{
+				for (int y = MIN_Y; y < MIN_Y + SIZE; y++)
+				{
+					assertEquals("range " + range + " at " + x + ", " + y, reach.contains(x, y), service.isWithinReach(x, y, range));
+				}
+			}
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testLookupsFollowService()
+	{
+		final Map<String, Object> lookups = service.getLookups();
+		final Predicate<WorldPoint> isInMulti = (Predicate<WorldPoint>) lookups.get("isInMulti");
+		final Predicate<WorldPoint> isInSpearRange = (Predicate<WorldPoint>) lookups.get("isInSpearRange");
+		final BiPredicate<WorldPoint, Integer> isWithinReach = (BiPredicate<WorldPoint, Integer>) lookups.get("isWithinReach");
+		assertTrue(((BooleanSupplier) lookups.get("isLoaded")).getAsBoolean());
+		for (int x = MIN_X; x < MIN_X + SIZE; x++)
+		{
+			for (int y = MIN_Y; y < MIN_Y + SIZE; y++)
+			{
+				final WorldPoint point = new WorldPoint(x, y, 0);
+				assertEquals(service.isInMulti(x, y), isInMulti.test(point));
+				assertEquals(service.isInSpearRange(x, y), isInSpearRange.test(point));
+				assertEquals(service.isWithinReach(x, y, 2), isWithinReach.test(point, 2));
+			}
+		}
+
+		// The same lookups answer for whichever dataset is in use
+		service.setDataset(Dataset.EMPTY);
+		assertFalse(((BooleanSupplier) lookups.get("isLoaded")).getAsBoolean());
+		assertFalse(isInMulti.test(new WorldPoint(MIN_X + SIZE / 2, MIN_Y + SIZE / 2, 0)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsRangeAboveMax()
+	{
+		service.isWithinReach(3200, 3200, MultiAreaService.MAX_RANGE + 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsNegativeRange()
+	{
+		service.isWithinReach(3200, 3200, -1);
+	}
+}
@@ -0,0 +1,91 @@
+package com.tsbreuer.multilines;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks normalized rectangles cover the same tiles with as few rectangles as shapes made of
+ * bars need, and that the rectangles of different areas are merged for the masks.
+ */
+public class RectangleNormalizerTest
+{
+	@Test
+	public void testPlusTakesTwo()
+	{
+		// Cut into rows, as a mapper would
+		assertNormalizedTo(2, new Rectangle(4, 0, 2, 4), new Rectangle(0, 4, 10, 2), new Rectangle(4, 6, 2, 4));
+	}
+
+	@Test
+	public void testSidewaysTeeTakesTwo()
+	{
+		assertNormalizedTo(2, new Rectangle(0, 0, 2, 4), new Rectangle(0, 4, 6, 2), new Rectangle(0, 6, 2, 4));
+	}
+
+	@Test
+	public void testLTakesTwo()
+	{
+		assertNormalizedTo(2, new Rectangle(0, 0, 8, 2), new Rectangle(0, 2, 2, 3), new Rectangle(0, 5, 2, 3));
+	}
+
+	@Test
+	public void testOverlappingAreasAreMerged()
+	{
+		final List<MultiArea> areas = Arrays.asList(
+			new MultiArea("West", Arrays.asList(new Rectangle(3200, 3200, 10, 10))),
+			new MultiArea("East", Arrays.asList(new Rectangle(3205, 3200, 10, 10))),
+			new MultiArea("Beyond", Arrays.asList(new Rectangle(3215, 3200, 5, 10))));
+		final List<Rectangle> merged = RectangleNormalizer.normalizeRectangles(Dataset.of(areas).getRectangles());
+		assertEquals(Arrays.asList(new Rectangle(3200, 3200, 20, 10)), merged);
+		assertEquals(tiles(Dataset.of(areas).getRectangles()), tiles(merged));
+	}
+
+	@Test
+	public void testKeepsTilesOfRandomRectangles()
+	{
+		final Random random = new Random(21);
+		for (int attempt = 0; attempt < 500; attempt++)
+		{
+			final List<Rectangle> rectangles = new ArrayList<>();
+			for (int i = random.nextInt(12); i >= 0; i--)
+			{
+				rectangles.add(new Rectangle(random.nextInt(20), random.nextInt(20), random.nextInt(8), random.nextInt(8)));
+			}
+
+			final List<Rectangle> normalized = RectangleNormalizer.normalizeRectangles(rectangles);
+			assertEquals(rectangles.toString(), tiles(rectangles), tiles(normalized));
+			assertTrue(rectangles.toString(), normalized.size() <= rectangles.size());
+		}
+	}
+
+	private static void assertNormalizedTo(int count, Rectangle... rectangles)
+	{
+		final List<Rectangle> normalized = RectangleNormalizer.normalizeRectangles(Arrays.asList(rectangles));
+		assertEquals(normalized.toString(), count, normalized.size());
+		assertEquals(tiles(Arrays.asList(rectangles)), tiles(normalized));
+	}
+
+	private static Set<Long> tiles(List<Rectangle> rectangles)
+	{
+		final Set<Long> tiles = new HashSet<>();
+		for (Rectangle rectangle : rectangles)
+		{
+			for (int x = rectangle.x; x < rectangle.x + rectangle.width; x++)
+			{
+				for (int y = rectangle.y; y < rectangle.y + rectangle.height; y++)
+				{
+					tiles.add((long) x << 32 | y);
+				}
+			}
+		}
+		return tiles;
+	}
+}
@@ -0,0 +1,124 @@
+package com.tsbreuer.multilines;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The tiles within reach of some rectangles worked out the slow and obvious way, to check
+ * {@link TileMask} against: the {@link Area} covered by every rectangle grown by
+ * {@code (range - i, i)} for each {@code i} up to the range, a tile being inside when its
+ * centre is.
+ */
+final class ReferenceTiles
+{
+	private static final int REGION_SIZE = 64;
+
+	private final Rectangle bounds;
+	private final BufferedImage raster;
+
+	ReferenceTiles(Collection<Rectangle> rectangles, int range)
+	{
+		// Every rectangle winds the same way, so filling them non-zero is their union
+		final Path2D.Double path = new Path2D.Double(Path2D.WIND_NON_ZERO);
+		for (Rectangle rectangle : rectangles)
+		{
+			for (int i = 0; i <= range; i++)
+			{
+				final Rectangle grown = new Rectangle(rectangle);
+				grown.grow(range - i, i);
+				path.append(grown, false);
+			}
+		}
+		final Area area = new Area(path);
+
+		// The corners are all on whole tiles, so no tile centre is ever on an edge and filling
+		// the area picks exactly the tiles whose centre is inside
+		bounds = area.getBounds();
+		raster = new BufferedImage(Math.max(1, bounds.width), Math.max(1, bounds.height), BufferedImage.TYPE_BYTE_BINARY);
+		final Graphics2D graphics = raster.createGraphics();
+		try
+		{
+			graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+			graphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+			graphics.translate(-bounds.x, -bounds.y);
+			graphics.fill(area);
+		}
+		finally
+		{
+			graphics.dispose();
+		}
+	}
+
+	/**
+	 * @return the tiles which may be inside
+	 */
+	Rectangle getBounds()
+	{
+		return bounds;
+	}
+
+	boolean contains(int x, int y)
+	{
+		return bounds.contains(x, y) && raster.getRaster().getSample(x - bounds.x, y - bounds.y, 0) != 0;
+	}
+
+	/**
+	 * @return the outline of a region in the layout of {@link TileMask#outline(int, int)}, found
+	 * by comparing every tile of the region with its south and west neighbours
+	 */
+	int[] outline(int regionX, int regionY)
+	{
+		final int baseX = regionX * REGION_SIZE;
+		final int baseY = regionY * REGION_SIZE;
+		int[] runs = new int[0];
+		for (int line = 0; line < REGION_SIZE; line++)
+		{
+			int start = -1;
+			for (int n = 0; n <= REGION_SIZE; n++)
+			{
+				final boolean edge = n < REGION_SIZE && contains(baseX + n, baseY + line) != contains(baseX + n, baseY + line - 1);
+				if (edge && start == -1)
+				{
+					start = n;
+				}
+				else if (!edge && start != -1)
+				{
+					runs = append(runs, baseX + start, baseY + line, baseX + n, baseY + line);
+					start = -1;
+				}
+			}
+
+			start = -1;
+			for (int n = 0; n <= REGION_SIZE; n++)
+			{
+				final boolean edge = n < REGION_SIZE && contains(baseX + line, baseY + n) != contains(baseX + line - 1, baseY + n);
+				if (edge && start == -1)
+				{
+					start = n;
+				}
+				else if (!edge && start != -1)
+				{
+					runs = append(runs, baseX + line, baseY + start, baseX + line, baseY + n);
+					start = -1;
+				}
+			}
+		}
+		return runs;
+	}
+
+	private static int[] append(int[] runs, int x1, int y1, int x2, int y2)
+	{
+		final int[] appended = Arrays.copyOf(runs, runs.length + 4);
+		appended[runs.length] = x1;
+		appended[runs.length + 1] = y1;
+		appended[runs.length + 2] = x2;
+		appended[runs.length + 3] = y2;
+		return appended;
+	}
+}
@@ -0,0 +1,62 @@
+package com.tsbreuer.multilines;
+
+import java.lang.reflect.Proxy;
+import net.runelite.api.Client;
+import net.runelite.api.Constants;
+import net.runelite.api.Perspective;
+
+/**
+ * Just enough of a {@link Client} to project lines: a flat scene seen from above its middle,
+ * looking north. The camera can be turned between frames.
+ */
+final class StubClient
+{
+	static final int CANVAS_WIDTH = 1280;
+	static final int CANVAS_HEIGHT = 800;
+
+	final int[][][] tileHeights = new int[Constants.MAX_Z][Constants.SCENE_SIZE][Constants.SCENE_SIZE];
+	final byte[][][] tileSettings = new byte[Constants.MAX_Z][Constants.SCENE_SIZE][Constants.SCENE_SIZE];
+	int cameraYaw;
+
+	/**
+	 * @return a client answering from this stub, which throws on anything the lines don't use
+	 */
+	Client client()
+	{
+		return (Client) Proxy.newProxyInstance(Client.class.getClassLoader(), new Class<?>[]{Client.class}, (proxy, method, args) ->
+		{
+			switch (method.getName())
+			{
+				case "getPlane":
+					return 0;
+				case "getTileHeights":
+					return tileHeights;
+				case "getTileSettings":
+					return tileSettings;
+				case "getCameraX":
+					return Constants.SCENE_SIZE / 2 * Perspective.LOCAL_TILE_SIZE;
+				case "getCameraY":
+					return Constants.SCENE_SIZE / 2 * Perspective.LOCAL_TILE_SIZE - 2000;
+				case "getCameraZ":
+					return -1500;
+				case "getCameraPitch":
+					return 300;
+				case "getCameraYaw":
+					return cameraYaw;
+				case "getScale":
+					return 600;
+				case "getViewportWidth":
+				case "getCanvasWidth":
+					return CANVAS_WIDTH;
+				case "getViewportHeight":
+				case "getCanvasHeight":
+					return CANVAS_HEIGHT;
+				case "getViewportXOffset":
+				case "getViewportYOffset":
+					return 0;
+				default:
+					throw new UnsupportedOperationException(method.getName());
+			}
+		});
+	}
+}
@@ -0,0 +1,59 @@
+package com.tsbreuer.multilines;
+
+import java.awt.Color;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pans across a world map view the way the overlay walks it, checking the tiles in view are
+ * kept between frames.
+ */
+public class WorldMapTileCacheTest
+{
+	private static final int SPEAR_RANGE = 4;
+
+	// A 1920x1080 map at zoom 1, over the fixture's areas from Falador to Weiss
+	private static final float ZOOM = 1;
+	private static final int WEST_REGION = 30;
+	private static final int SOUTH_REGION = 45;
+	private static final int COLUMNS = 1920 / 64 + 1;
+	private static final int ROWS = 1080 / 64 + 1;
+
+	private final Instrumentation instrumentation = new Instrumentation();
+	private Dataset dataset;
+
+	@Before
+	public void before()
+	{
+		instrumentation.setEnabled(true);
+		dataset = GeometryFixtures.normalDataset();
+		dataset.getReach(SPEAR_RANGE);
+	}
+
+	@Test
+	public void testViewLargerThanOldCapacityStaysCached()
+	{
+		assertTrue(COLUMNS * ROWS > 256);
+		final WorldMapTileCache cache = new WorldMapTileCache(MultiLinesWorldMapOverlay.TILE_CACHE_BYTES, instrumentation);
+		drawView(cache);
+		assertEquals(COLUMNS * ROWS, instrumentation.getCount(Instrumentation.Layer.WORLD_MAP, Instrumentation.Counter.TILE_MISSES));
+
+		instrumentation.reset();
+		drawView(cache);
+		assertEquals(COLUMNS * ROWS, instrumentation.getCount(Instrumentation.Layer.WORLD_MAP, Instrumentation.Counter.TILE_HITS));
+		assertEquals(0, instrumentation.getCount(Instrumentation.Layer.WORLD_MAP, Instrumentation.Counter.TILE_MISSES));
+	}
+
+	private void drawView(WorldMapTileCache cache)
+	{
+		for (int regionX = WEST_REGION; regionX < WEST_REGION + COLUMNS; regionX++)
+		{
+			for (int regionY = SOUTH_REGION; regionY < SOUTH_REGION + ROWS; regionY++)
+			{
+				cache.get(dataset, SPEAR_RANGE, ZOOM, regionX, regionY, Color.RED, Color.ORANGE);
+			}
+		}
+	}
+}